@@ -0,0 +1,28 @@
+package mindustrytool.bench;
+
+import arc.Core;
+import arc.util.I18NBundle;
+import mindustry.Vars;
+import mindustry.core.ContentLoader;
+
+/**
+ * Minimal stand-in for the game's content so schematic decoding can run
+ * without a client.
+ */
+public class BenchContent {
+    private static boolean loaded = false;
+
+    public static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+
+        Vars.headless = true;
+        // Content constructors read their names from the bundle, like the headless server
+        Core.bundle = I18NBundle.createEmptyBundle();
+        Vars.content = new ContentLoader();
+        Vars.content.createBaseContent();
+
+        loaded = true;
+    }
+}
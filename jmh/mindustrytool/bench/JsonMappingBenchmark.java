@@ -0,0 +1,86 @@
+package mindustrytool.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import mindustrytool.Utils;
+import mindustrytool.dto.MapData;
+import mindustrytool.dto.SchematicData;
+import mindustrytool.features.chat.global.dto.ChatMessage;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMappingBenchmark {
+
+    private String schematicPage;
+    private String mapPage;
+    private String chatMessage;
+    private String chatHistory;
+
+    @Setup
+    public void setup() {
+        // Mirrors a browser page, including fields the client does not map
+        schematicPage = page(20, i -> String.format(
+                "{\"id\":\"%08x-schematic\",\"itemId\":\"item-%d\",\"name\":\"Silicon smelter array %d\","
+                        + "\"likes\":%d,\"downloads\":%d,\"comments\":%d,\"width\":32,\"height\":24,"
+                        + "\"tags\":[\"serpulo\",\"silicon\",\"production\"],\"createdBy\":\"user-%d\","
+                        + "\"createdAt\":\"2026-01-0%dT12:00:00Z\",\"verified\":true}",
+                i, i, i, i * 7, i * 131, i % 5, i, i % 9 + 1));
+
+        mapPage = page(20, i -> String.format(
+                "{\"id\":\"%08x-map\",\"itemId\":\"item-%d\",\"name\":\"Frontier %d\",\"likes\":%d,"
+                        + "\"downloads\":%d,\"comments\":%d,\"width\":300,\"height\":300,"
+                        + "\"tags\":[\"attack\",\"erekir\"],\"createdBy\":\"user-%d\"}",
+                i, i, i, i * 3, i * 57, i % 4, i));
+
+        chatMessage = message(0);
+        chatHistory = page(50, JsonMappingBenchmark::message);
+    }
+
+    private static String message(int i) {
+        return String.format("{\"id\":\"msg-%d\",\"createdBy\":\"user-%d\",\"createdAt\":\"2026-01-01T12:%02d:00Z\","
+                + "\"content\":\"Anyone has a good **plastanium** setup? `schematic` [link](https://mindustry-tool.com)\","
+                + "\"replyTo\":null,\"channelId\":\"global\"}", i, i % 13, i % 60);
+    }
+
+    private interface Item {
+        String get(int index);
+    }
+
+    private static String page(int count, Item item) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(item.get(i));
+        }
+        return builder.append(']').toString();
+    }
+
+    @Benchmark
+    public List<SchematicData> schematicPage() {
+        return Utils.fromJsonArray(SchematicData.class, schematicPage);
+    }
+
+    @Benchmark
+    public List<MapData> mapPage() {
+        return Utils.fromJsonArray(MapData.class, mapPage);
+    }
+
+    @Benchmark
+    public ChatMessage chatMessage() {
+        return Utils.fromJson(ChatMessage.class, chatMessage);
+    }
+
+    @Benchmark
+    public List<ChatMessage> chatHistory() {
+        return Utils.fromJsonArray(ChatMessage.class, chatHistory);
+    }
+}
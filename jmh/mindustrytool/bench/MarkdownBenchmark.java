@@ -0,0 +1,75 @@
+package mindustrytool.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import mindustrytool.Utils;
+import mindustrytool.utils.MarkdownRenderer;
+
+/**
+ * Compares the single pass renderer against the previous regex based one.
+ * Run with -PjmhArgs="MarkdownBenchmark -prof gc" to see allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkdownBenchmark {
+
+    private String chat;
+    private String release;
+
+    @Setup
+    public void setup() {
+        chat = "Check **this** out: [schematic](https://mindustry-tool.com/schematics/abc) and `code` *now*";
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            builder.append("## v4.").append(i).append(".0\n")
+                    .append("- Fixed **crash** when opening the *browser* with `ENV=DEV`\n")
+                    .append("- Added [docs](https://github.com/MindustryTool/MindustryToolMod/wiki) for sync\n")
+                    .append("* Improved chat rendering performance\n\n")
+                    .append("Plain paragraph describing the release in a few sentences.\n");
+        }
+        release = builder.toString();
+    }
+
+    @Benchmark
+    public String chatMessage() {
+        return MarkdownRenderer.render(chat);
+    }
+
+    @Benchmark
+    public String releaseNotes() {
+        return MarkdownRenderer.render(release);
+    }
+
+    @Benchmark
+    public String releaseNotesCached() {
+        return Utils.renderMarkdown(release);
+    }
+
+    @Benchmark
+    public String chatMessageRegex() {
+        return renderRegex(chat);
+    }
+
+    @Benchmark
+    public String releaseNotesRegex() {
+        return renderRegex(release);
+    }
+
+    // The replaceAll chain Utils.renderMarkdown used before, kept as a baseline
+    private static String renderRegex(String text) {
+        text = text.replaceAll("\\[(.*?)\\]\\((.*?)\\)", "[sky]$1[white]");
+        text = text.replaceAll("(?m)^#{1,6}\\s+(.*)$", "[accent]$1[white]");
+        text = text.replaceAll("(?m)^\\s*[-*]\\s+(.*)$", "• $1");
+        text = text.replaceAll("\\*\\*(.*?)\\*\\*", "[white]$1[white]");
+        text = text.replaceAll("(?<!\\*)\\*(?!\\*)(.*?)(?<!\\*)\\*(?!\\*)", "[lightgray]$1[white]");
+        text = text.replaceAll("`([^`]*)`", "[cyan]$1[white]");
+        return text;
+    }
+}
@@ -0,0 +1,70 @@
+package mindustrytool.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import arc.struct.Seq;
+import arc.struct.StringMap;
+import arc.util.serialization.Base64Coder;
+import mindustry.content.Blocks;
+import mindustry.content.Items;
+import mindustry.game.Schematic;
+import mindustry.game.Schematic.Stile;
+import mindustry.game.Schematics;
+import mindustry.world.Block;
+import mindustrytool.Utils;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchematicReadBenchmark {
+
+    @Param({ "16", "64" })
+    public int size;
+
+    private byte[] bytes;
+    private String base64;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchContent.load();
+
+        Block[] blocks = { Blocks.conveyor, Blocks.titaniumConveyor, Blocks.router, Blocks.sorter,
+                Blocks.junction, Blocks.bridgeConveyor };
+
+        Seq<Stile> tiles = new Seq<>();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Block block = blocks[(x * 31 + y) % blocks.length];
+                Object config = block == Blocks.sorter ? Items.copper : null;
+                tiles.add(new Stile(block, x, y, config, (byte) ((x + y) % 4)));
+            }
+        }
+
+        StringMap tags = new StringMap();
+        tags.put("name", "Benchmark " + size);
+        tags.put("labels", "[\"bench\"]");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Schematics.write(new Schematic(tiles, tags, size, size), out);
+
+        bytes = out.toByteArray();
+        base64 = new String(Base64Coder.encode(bytes));
+    }
+
+    @Benchmark
+    public Schematic read() throws Exception {
+        return Utils.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public Schematic readBase64() {
+        return Utils.readBase64(base64);
+    }
+}
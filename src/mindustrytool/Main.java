@@ -30,6 +30,7 @@ import mindustrytool.features.settings.FeatureSettingDialog;
 import mindustrytool.features.smartupgrade.SmartUpgradeFeature;
 import mindustrytool.features.time.TimeControlFeature;
 import mindustrytool.features.smartdrill.SmartDrillFeature;
+import mindustrytool.services.ResponseCache;
 import mindustrytool.services.ServerService;
 import mindustrytool.services.TapListener;
 import mindustrytool.services.CrashReportService;
@@ -48,6 +49,7 @@ public class Main extends Mod {
     public static LoadedMod self;
 
     public static Fi imageDir = Vars.dataDirectory.child("mindustry-tool-caches");
+    public static Fi responseCacheDir = Vars.dataDirectory.child("mindustry-tool-responses");
     public static Fi mapsDir = Vars.dataDirectory.child("mindustry-tool-maps");
     public static Fi schematicDir = Vars.dataDirectory.child("mindustry-tool-schematics");
     public static Fi backgroundsDir = Vars.dataDirectory.child("mindustry-tool-backgrounds");
@@ -105,15 +107,19 @@ public class Main extends Mod {
 
     private void setup() {
         imageDir.mkdirs();
+        responseCacheDir.mkdirs();
         mapsDir.mkdirs();
         backgroundsDir.mkdirs();
         musicsDir.mkdirs();
         schematicDir.mkdirs();
 
         checkDirVersion(imageDir, 1);
+        checkDirVersion(responseCacheDir, 1);
         checkDirVersion(mapsDir, 1);
         checkDirVersion(schematicDir, 1);
 
+        ResponseCache.getInstance().prune();
+
         AuthService.getInstance().init();
         ServerService.getInstance().init();
         TapListener.getInstance().init();
@@ -24,11 +24,17 @@ import mindustry.world.blocks.legacy.*;
 import mindustry.world.blocks.power.*;
 import mindustry.world.blocks.sandbox.*;
 import mindustry.world.blocks.storage.*;
+import mindustrytool.utils.MarkdownRenderer;
 
 import java.io.*;
+import java.lang.ref.SoftReference;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.*;
 
@@ -42,7 +48,28 @@ import static mindustry.Vars.*;
 public class Utils {
     public static LoadedMod mod;
 
-    public static ObjectMap<String, Schematic> schematicData = new ObjectMap<>();
+    private static final int MAX_CACHED_SCHEMATICS = 64;
+
+    // Keyed by the base64 string itself, its hash is cached by String and a hit
+    // on the same instance skips the compare. Soft values let the GC reclaim
+    // decoded tiles under memory pressure
+    private static final Map<String, SoftReference<Schematic>> schematicCache = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SoftReference<Schematic>> eldest) {
+                    return size() > MAX_CACHED_SCHEMATICS;
+                }
+            });
+    private static final int MAX_CACHED_MARKDOWN = 128;
+
+    private static final Map<String, String> markdownCache = Collections
+            .synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_CACHED_MARKDOWN;
+                }
+            });
+
     private static ConcurrentHashMap<String, TextureRegionDrawable> iconCache = new ConcurrentHashMap<>();
     private static ConcurrentHashMap<TextureRegionDrawable, TextureRegionDrawable> scalableIconCache = new ConcurrentHashMap<>();
 
@@ -53,18 +80,68 @@ public class Utils {
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
             .registerModule(new JavaTimeModule());
 
-    public static synchronized Schematic readSchematic(String data) {
-        return schematicData.get(data, () -> readBase64(data));
+    public static Schematic readSchematic(String data) {
+        var ref = schematicCache.get(data);
+        var cached = ref == null ? null : ref.get();
+
+        if (cached != null) {
+            return cached;
+        }
+
+        // Decode outside of any lock, two threads racing on the same schematic
+        // just decode it twice
+        Schematic schematic = readBase64(data);
+        schematicCache.put(data, new SoftReference<>(schematic));
+
+        return schematic;
     }
 
     public static Schematic readBase64(String schematic) {
         try {
-            return read(new ByteArrayInputStream(Base64Coder.decode(schematic.trim())));
+            return read(Base64.getDecoder().wrap(new StringInputStream(schematic.trim())));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /** Reads the chars of an ASCII string as bytes without copying it. */
+    private static class StringInputStream extends InputStream {
+        private final String value;
+        private int position = 0;
+
+        StringInputStream(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int read() {
+            return position < value.length() ? value.charAt(position++) & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            if (position >= value.length()) {
+                return -1;
+            }
+
+            int count = Math.min(length, value.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) value.charAt(position++);
+            }
+
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return value.length() - position;
+        }
+    }
+
     public static Schematic read(InputStream input) throws IOException {
         for (byte b : header) {
             if (input.read() != b) {
@@ -175,25 +252,15 @@ public class Utils {
         if (text == null)
             return "";
 
-        // Links - Run first to avoid matching color tags
-        text = text.replaceAll("\\[(.*?)\\]\\((.*?)\\)", "[sky]$1[white]");
-
-        // Headers
-        text = text.replaceAll("(?m)^#{1,6}\\s+(.*)$", "[accent]$1[white]");
-
-        // List items
-        text = text.replaceAll("(?m)^\\s*[-*]\\s+(.*)$", "• $1");
-
-        // Bold
-        text = text.replaceAll("\\*\\*(.*?)\\*\\*", "[white]$1[white]");
-
-        // Italic
-        text = text.replaceAll("(?<!\\*)\\*(?!\\*)(.*?)(?<!\\*)\\*(?!\\*)", "[lightgray]$1[white]");
+        var cached = markdownCache.get(text);
+        if (cached != null) {
+            return cached;
+        }
 
-        // Code
-        text = text.replaceAll("`([^`]*)`", "[cyan]$1[white]");
+        String rendered = MarkdownRenderer.render(text);
+        markdownCache.put(text, rendered);
 
-        return text;
+        return rendered;
     }
 
     public static String getString(String text) {
@@ -248,12 +315,15 @@ public class Utils {
         return bytesToHex(digest.digest());
     }
 
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static String bytesToHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
         }
-        return sb.toString();
+        return new String(chars);
     }
 
     public static void onAppExit(Runnable callback) {
@@ -1,7 +1,12 @@
 package mindustrytool.dto;
 
 import java.net.URI;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 
 import org.apache.http.client.utils.URIBuilder;
 
@@ -10,11 +15,10 @@ import arc.func.Cons;
 import arc.struct.ObjectMap;
 import arc.struct.Seq;
 import arc.struct.ObjectMap.Entry;
-import arc.util.Http;
-import arc.util.Http.HttpResponse;
-import arc.util.Http.HttpStatus;
 import arc.util.Log;
+import arc.util.Time;
 import mindustrytool.Utils;
+import mindustrytool.services.ResponseCache;
 
 public class PagingRequest<T> {
 
@@ -32,11 +36,79 @@ public class PagingRequest<T> {
 
     private ObjectMap<String, Object> options = new ObjectMap<>();
 
+    private static final int MAX_CACHED_PAGES = 4;
+    private static final long PAGE_CACHE_TTL = 60 * 1000;
+    private static final long RESPONSE_CACHE_MAX_AGE = 60 * 1000;
+
+    private boolean prefetch = false;
+    private Cons<Seq<T>> onPrefetch = items -> {
+    };
+
+    private final Set<String> prefetching = new HashSet<>();
+    private final LinkedHashMap<String, CachedPage<T>> pageCache = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPage<T>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    private static class CachedPage<T> {
+        final List<T> items;
+        final long time;
+
+        CachedPage(List<T> items) {
+            this.items = items;
+            this.time = Time.millis();
+        }
+
+        boolean isExpired() {
+            return Time.timeSinceMillis(time) > PAGE_CACHE_TTL;
+        }
+    }
+
     public PagingRequest(Class<T> clazz, String url) {
         this.url = url;
         this.clazz = clazz;
     }
 
+    /**
+     * When enabled, the next page is fetched quietly after each successful
+     * page and kept in a small cache keyed by uri. The listener receives the
+     * prefetched items on the main thread so previews can be warmed.
+     */
+    public synchronized void setPrefetch(boolean prefetch, Cons<Seq<T>> onPrefetch) {
+        this.prefetch = prefetch;
+        this.onPrefetch = onPrefetch;
+
+        if (!prefetch) {
+            pageCache.clear();
+        }
+    }
+
+    private URI buildUri(int page) throws Exception {
+        URIBuilder builder = new URIBuilder(url)//
+                .setParameter("page", String.valueOf(page))//
+                .setParameter("size", String.valueOf(Math.min(size, 100)));
+
+        for (Entry<String, Object> entry : options.entries()) {
+            Object value = entry.value;
+
+            if (value instanceof List list) {
+                for (Object v : list) {
+                    String str = String.valueOf(v);
+                    if (str.isEmpty()) continue;
+                    builder.addParameter(entry.key, str);
+                }
+            } else {
+                if (entry.value != null && !String.valueOf(value).isEmpty()) {
+                    builder.setParameter(entry.key, String.valueOf(value));
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
     public synchronized void getPage(Cons<Seq<T>> listener) {
         if (isLoading)
             return;
@@ -45,34 +117,32 @@ public class PagingRequest<T> {
         isLoading = true;
 
         try {
-            URIBuilder builder = new URIBuilder(url)//
-                    .setParameter("page", String.valueOf(page))//
-                    .setParameter("size", String.valueOf(Math.min(size, 100)));
-
-            for (Entry<String, Object> entry : options.entries()) {
-                Object value = entry.value;
-
-                if (value instanceof List list) {
-                    for (Object v : list) {
-                        String str = String.valueOf(v);
-                        if (str.isEmpty()) continue;
-                        builder.addParameter(entry.key, str);
-                    }
-                } else {
-                    if (entry.value != null && !String.valueOf(value).isEmpty()) {
-                        builder.setParameter(entry.key, String.valueOf(value));
-                    }
-                }
+            URI uri = buildUri(page);
+
+            var cached = pageCache.remove(uri.toString());
+            if (cached != null && !cached.isExpired()) {
+                Log.debug("Serve prefetched page @", uri);
+
+                isLoading = false;
+                hasMore = cached.items.size() != 0;
+                listener.get(Seq.with(cached.items));
+                prefetchNextPage();
+                return;
             }
-            URI uri = builder.build();
+
             listener.get(null);
 
             Log.debug(uri);
 
-            Http.get(uri.toString())//
-                    .timeout(1000 * 5)
-                    .error(error -> handleError(listener, error, uri.toString()))//
-                    .submit(response -> handleResult(response, size, listener));
+            ResponseCache.getInstance()
+                    .get(uri.toString(), RESPONSE_CACHE_MAX_AGE, 1000 * 5)
+                    .whenComplete((data, error) -> {
+                        if (error != null) {
+                            handleError(listener, unwrap(error), uri.toString());
+                        } else {
+                            handleResult(data, listener);
+                        }
+                    });
 
         } catch (Exception e) {
             handleError(listener, e, url);
@@ -89,6 +159,13 @@ public class PagingRequest<T> {
         listener.get(null);
     }
 
+    private static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+
     public synchronized void setPage(int page) {
         this.page = page;
     }
@@ -147,19 +224,11 @@ public class PagingRequest<T> {
         getPage(listener);
     }
 
-    private synchronized void handleResult(HttpResponse response, int size, Cons<Seq<T>> listener) {
+    private synchronized void handleResult(String data, Cons<Seq<T>> listener) {
         isLoading = false;
         isError = false;
 
-        if (response.getStatus() != HttpStatus.OK) {
-            isError = true;
-            error = response.getResultAsString();
-            listener.get(new Seq<>());
-            return;
-        }
-
         try {
-            String data = response.getResultAsString();
             var items = Utils.fromJsonArray(clazz, data);
 
             hasMore = items.size() != 0;
@@ -167,8 +236,62 @@ public class PagingRequest<T> {
             Core.app.post(() -> {
                 listener.get(Seq.with(items));
             });
+
+            prefetchNextPage();
         } catch (Exception e) {
             handleError(listener, e, url);
         }
     }
+
+    private synchronized void prefetchNextPage() {
+        if (!prefetch || !hasMore) {
+            return;
+        }
+
+        try {
+            String uri = buildUri(page + 1).toString();
+
+            if (pageCache.containsKey(uri) || !prefetching.add(uri)) {
+                return;
+            }
+
+            ResponseCache.getInstance()
+                    .get(uri, RESPONSE_CACHE_MAX_AGE, 1000 * 5)
+                    .whenComplete((data, error) -> {
+                        if (error != null) {
+                            Log.debug("Prefetch failed @: @", uri, unwrap(error).getMessage());
+                            synchronized (this) {
+                                prefetching.remove(uri);
+                            }
+                            return;
+                        }
+
+                        List<T> items = null;
+
+                        try {
+                            items = Utils.fromJsonArray(clazz, data);
+                        } catch (Exception e) {
+                            Log.err(uri, e);
+                        }
+
+                        Cons<Seq<T>> warm;
+
+                        synchronized (this) {
+                            prefetching.remove(uri);
+
+                            if (items == null) {
+                                return;
+                            }
+
+                            pageCache.put(uri, new CachedPage<>(items));
+                            warm = onPrefetch;
+                        }
+
+                        var result = Seq.with(items);
+                        Core.app.post(() -> warm.get(result));
+                    });
+        } catch (Exception e) {
+            Log.err(url, e);
+        }
+    }
 }
@@ -23,6 +23,7 @@ import mindustrytool.dto.MapData;
 import mindustrytool.dto.PagingRequest;
 import mindustrytool.features.browser.FilterDialog;
 import mindustrytool.features.browser.SearchConfig;
+import mindustrytool.services.DownloadScheduler.Priority;
 import mindustrytool.services.MapService;
 import mindustrytool.services.TagService;
 import mindustrytool.services.TagService.TagCategoryEnum;
@@ -85,6 +86,8 @@ public class MapDialog extends BaseDialog {
         options.put("sort", searchConfig.getSort().getValue());
         options.put("verification", "VERIFIED");
         request.setOptions(options);
+        request.setPrefetch(true, items -> items
+                .each(data -> MapImage.load(data.getId(), true, Priority.BACKGROUND)));
     }
 
     private void initializeUI() {
@@ -2,16 +2,11 @@ package mindustrytool.features.browser.map;
 
 import arc.Core;
 import arc.graphics.Color;
-import arc.graphics.Pixmap;
-import arc.graphics.Texture;
-import arc.graphics.Texture.TextureFilter;
 import arc.graphics.g2d.Draw;
 import arc.graphics.g2d.Lines;
 import arc.graphics.g2d.TextureRegion;
 import arc.scene.ui.Image;
 import arc.scene.ui.layout.Scl;
-import arc.struct.ObjectMap;
-import arc.util.Http;
 import arc.util.Http.HttpStatus;
 import arc.util.Http.HttpStatusException;
 import arc.util.Log;
@@ -22,6 +17,10 @@ import mindustry.gen.Tex;
 import mindustry.graphics.Pal;
 import mindustrytool.Main;
 import mindustrytool.Config;
+import mindustrytool.services.DownloadScheduler;
+import mindustrytool.services.DownloadScheduler.Priority;
+import mindustrytool.ui.ImageDecoder;
+import mindustrytool.ui.TextureCache;
 
 public class MapImage extends Image {
     public float scaling = 16f;
@@ -31,14 +30,18 @@ public class MapImage extends Image {
     private final String id;
     private final boolean preview;
     private TextureRegion lastTexture;
-    private static ObjectMap<String, TextureRegion> textureCache = new ObjectMap<>();
     private final String imageUrl;
 
     public MapImage(String id, boolean preview) {
         super(Tex.clear);
         this.id = id;
         this.preview = preview;
+        this.imageUrl = imageUrl(id, preview);
 
+        setScaling(Scaling.fit);
+    }
+
+    public static String imageUrl(String id, boolean preview) {
         StringBuilder sb = new StringBuilder(Config.IMAGE_URL);
         sb.append("maps/")
                 .append(id)
@@ -46,85 +49,82 @@ public class MapImage extends Image {
         if (preview) {
             sb.append("?variant=preview");
         }
-        imageUrl = sb.toString();
-
-        setScaling(Scaling.fit);
+        return sb.toString();
     }
 
-    @Override
-    public void draw() {
-        super.draw();
+    /**
+     * Loads the image into the shared texture cache from disk or the network.
+     * Does nothing if it is already cached or loading.
+     */
+    public static void load(String id, boolean preview, Priority priority) {
+        String imageUrl = imageUrl(id, preview);
+        var textureCache = TextureCache.getInstance();
 
-        try {
-            var next = textureCache.get(imageUrl);
-            if (lastTexture != next && next != null) {
-                lastTexture = next;
-                setDrawable(next);
-            }
-
-            if (!textureCache.containsKey(imageUrl)) {
-                textureCache.put(imageUrl, lastTexture = Core.atlas.find("nomap"));
-                var file = Main.mapsDir.child(id + (preview ? "_preview" : "") + ".png");
-
-                if (file.exists()) {
-                    byte[] result = file.readBytes();
-                    Pixmap pix = new Pixmap(result);
-                    Core.app.post(() -> {
+        if (!textureCache.beginLoad(imageUrl)) {
+            return;
+        }
+
+        var file = Main.mapsDir.child(id + (preview ? "_preview" : "") + ".png");
+
+        if (file.exists()) {
+            ImageDecoder.getInstance().decode(imageUrl, file, e -> textureCache.cancelLoad(imageUrl));
+            return;
+        }
+
+        DownloadScheduler.getInstance()
+                .download(imageUrl, 60_000, priority)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        if (!(error instanceof HttpStatusException requestError)
+                                || requestError.status != HttpStatus.NOT_FOUND) {
+                            Log.err(id, error);
+                            Timer.schedule(() -> textureCache.cancelLoad(imageUrl), 5);
+                        }
+                        return;
+                    }
+
+                    if (result.length == 0) {
+                        textureCache.cancelLoad(imageUrl);
+                        return;
+                    }
+
+                    Vars.mainExecutor.execute(() -> {
                         try {
-                            var tex = new Texture(pix);
-                            tex.setFilter(TextureFilter.linear);
-                            textureCache.put(imageUrl, new TextureRegion(tex));
-                            pix.dispose();
+                            file.writeBytes(result);
                         } catch (Exception e) {
                             Log.err(id, e);
                         }
                     });
 
-                } else {
-                    Http.get(imageUrl)
-                            .timeout(60_000)
-                            .error(error -> {
-                                if (!(error instanceof HttpStatusException requestError)
-                                        || requestError.status != HttpStatus.NOT_FOUND) {
-                                    Log.err(id, error);
-                                    Timer.schedule(() -> textureCache.remove(imageUrl), 5);
-                                }
-                            })
-                            .submit(res -> {
-                                byte[] result = res.getResult();
-                                if (result.length == 0)
-                                    return;
-
-                                Pixmap pix = new Pixmap(result);
-                                Vars.mainExecutor.execute(() -> {
-                                    try {
-                                        file.writeBytes(result);
-
-                                    } catch (Exception error) {
-                                        Log.err(id, error);
-                                    }
-                                });
-
-                                Core.app.post(() -> {
-                                    try {
-                                        var tex = new Texture(pix);
-                                        tex.setFilter(TextureFilter.linear);
-                                        textureCache.put(imageUrl, new TextureRegion(tex));
-                                        pix.dispose();
-                                    } catch (Exception e) {
-                                        Log.err(id, e);
-                                    }
-                                });
-
-                            });
-                }
-            }
-
-            Draw.color(borderColor);
-            Lines.stroke(Scl.scl(thickness));
-            Lines.rect(x, y, width, height);
-            Draw.reset();
+                    ImageDecoder.getInstance().decode(imageUrl, result, e -> textureCache.cancelLoad(imageUrl));
+                });
+    }
+
+    @Override
+    public void draw() {
+        // The previous texture may have been evicted and disposed, swap before drawing
+        var next = TextureCache.getInstance().get(imageUrl);
+        if (next == null) {
+            next = Core.atlas.find("nomap");
+            DownloadScheduler.getInstance().touch(imageUrl);
+        }
+
+        if (lastTexture != next) {
+            lastTexture = next;
+            setDrawable(next);
+        }
 
+        super.draw();
+
+        Draw.color(borderColor);
+        Lines.stroke(Scl.scl(thickness));
+        Lines.rect(x, y, width, height);
+        Draw.reset();
+
+        // textures are only requested when the rendering happens; this assists with
+        // culling
+        try {
+            load(id, preview, Priority.VISIBLE);
         } catch (Exception error) {
             Log.err(id, error);
         }
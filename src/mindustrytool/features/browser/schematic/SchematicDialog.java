@@ -26,6 +26,7 @@ import mindustrytool.dto.PagingRequest;
 import mindustrytool.dto.SchematicData;
 import mindustrytool.features.browser.FilterDialog;
 import mindustrytool.features.browser.SearchConfig;
+import mindustrytool.services.DownloadScheduler.Priority;
 import mindustrytool.services.SchematicService;
 import mindustrytool.services.TagService;
 import mindustrytool.services.TagService.TagCategoryEnum;
@@ -88,6 +89,8 @@ public class SchematicDialog extends BaseDialog {
         options.put("sort", searchConfig.getSort().getValue());
         options.put("verification", "VERIFIED");
         request.setOptions(options);
+        request.setPrefetch(true, items -> items
+                .each(data -> SchematicImage.load(data.getId(), true, Priority.BACKGROUND)));
     }
 
     private void initializeUI() {
@@ -0,0 +1,161 @@
+package mindustrytool.features.chat.global;
+
+import arc.struct.ObjectMap;
+import arc.struct.Queue;
+import mindustrytool.features.chat.global.dto.ChatMessage;
+
+/**
+ * Messages of one channel, oldest first. Keeps an id index next to the deque so
+ * duplicates are rejected in O(1). Once the channel grows past its retention
+ * cap, messages are dropped from the end opposite to where new ones arrived.
+ *
+ * After scrolling back drops the newest messages, live messages no longer
+ * continue the stored ones. They are kept apart as the live tail until the
+ * reader jumps back to it.
+ */
+public class ChannelMessages {
+    private final Queue<ChatMessage> messages = new Queue<>();
+    private final ObjectMap<String, ChatMessage> byId = new ObjectMap<>();
+    // Newer messages were dropped to make room for older history, live messages
+    // no longer continue the stored ones
+    private boolean newestTrimmed = false;
+    // Live messages received while newestTrimmed, oldest first
+    private final Queue<ChatMessage> newer = new Queue<>();
+
+    public Queue<ChatMessage> messages() {
+        return messages;
+    }
+
+    public ChatMessage get(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public boolean contains(String id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    public int size() {
+        return messages.size;
+    }
+
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    public boolean isNewestTrimmed() {
+        return newestTrimmed;
+    }
+
+    /**
+     * Appends newer messages in order, to the live tail while the newest
+     * messages are trimmed.
+     *
+     * @return the number of messages that were not already present
+     */
+    public int append(Iterable<ChatMessage> incoming) {
+        Queue<ChatMessage> target = newestTrimmed ? newer : messages;
+        int added = 0;
+
+        for (ChatMessage msg : incoming) {
+            if (msg == null || msg.id == null || byId.containsKey(msg.id)) {
+                continue;
+            }
+
+            byId.put(msg.id, msg);
+            target.addLast(msg);
+            added++;
+        }
+
+        return added;
+    }
+
+    /**
+     * Prepends a page of older messages, given newest first as the api returns
+     * them.
+     *
+     * @return the number of messages that were not already present
+     */
+    public int prepend(Iterable<ChatMessage> olderNewestFirst) {
+        int added = 0;
+
+        for (ChatMessage msg : olderNewestFirst) {
+            if (msg == null || msg.id == null || byId.containsKey(msg.id)) {
+                continue;
+            }
+
+            byId.put(msg.id, msg);
+            messages.addFirst(msg);
+            added++;
+        }
+
+        return added;
+    }
+
+    /**
+     * Drops the oldest messages until at most {@code max} remain.
+     *
+     * @return the number of messages removed
+     */
+    public int trimOldest(int max) {
+        int removed = 0;
+
+        while (messages.size > Math.max(max, 0)) {
+            byId.remove(messages.removeFirst().id);
+            removed++;
+        }
+
+        return removed;
+    }
+
+    /**
+     * Drops the newest messages until at most {@code max} remain.
+     *
+     * @return the number of messages removed
+     */
+    public int trimNewest(int max) {
+        int removed = 0;
+
+        while (messages.size > Math.max(max, 0)) {
+            byId.remove(messages.removeLast().id);
+            removed++;
+        }
+
+        if (removed > 0) {
+            newestTrimmed = true;
+        }
+
+        return removed;
+    }
+
+    /**
+     * Drops the oldest messages of the live tail until at most {@code max}
+     * remain.
+     */
+    public void trimNewer(int max) {
+        while (newer.size > Math.max(max, 0)) {
+            byId.remove(newer.removeFirst().id);
+        }
+    }
+
+    /** Replaces the stored messages with the live tail, which may be empty. */
+    public void showNewer() {
+        for (ChatMessage msg : messages) {
+            byId.remove(msg.id);
+        }
+
+        messages.clear();
+
+        while (!newer.isEmpty()) {
+            messages.addLast(newer.removeFirst());
+        }
+
+        newestTrimmed = false;
+    }
+
+    public void clear() {
+        messages.clear();
+        newer.clear();
+        byId.clear();
+        newestTrimmed = false;
+    }
+}
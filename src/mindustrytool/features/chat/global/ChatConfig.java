@@ -97,4 +97,8 @@ public class ChatConfig {
     public static void status(boolean value) {
         Core.settings.put("mindustrytool.chat.status", value);
     }
+
+    public static int maxMessages() {
+        return Core.settings.getInt("mindustrytool.chat.max-messages", 1000);
+    }
 }
@@ -7,6 +7,8 @@ import arc.Core;
 import arc.Events;
 import arc.scene.ui.Dialog;
 import arc.util.Log;
+import arc.struct.ObjectMap;
+import arc.struct.ObjectSet;
 import arc.struct.Seq;
 import mindustry.Vars;
 import mindustry.gen.Icon;
@@ -42,10 +44,27 @@ public class ChatFeature implements Feature {
             ChatStore store = ChatStore.getInstance();
             String currentChannelId = store.getCurrentChannelId();
 
+            // One store update per channel for the whole batch
+            ObjectMap<String, Seq<ChatMessage>> byChannel = new ObjectMap<>();
+            ObjectSet<String> seen = new ObjectSet<>();
+            Seq<ChatMessage> received = new Seq<>();
+
             for (ChatMessage msg : event.messages) {
-                String channelId = msg.channelId;
+                if (msg.id == null || msg.channelId == null || !seen.add(msg.id)
+                        || store.getMessage(msg.channelId, msg.id) != null) {
+                    continue;
+                }
+
+                byChannel.get(msg.channelId, Seq::new).add(msg);
+                received.add(msg);
+            }
+
+            for (var entry : byChannel) {
+                store.addMessages(entry.key, entry.value);
+            }
 
-                store.addMessages(channelId, Seq.with(msg));
+            for (ChatMessage msg : received) {
+                String channelId = msg.channelId;
 
                 ChannelDto channel = store.getChannels().find(c -> c.id.equals(channelId));
                 if (channel != null) {
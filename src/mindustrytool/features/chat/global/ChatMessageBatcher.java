@@ -0,0 +1,54 @@
+package mindustrytool.features.chat.global;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import arc.func.Cons;
+import arc.struct.Seq;
+import arc.util.Timer;
+import mindustrytool.features.chat.global.dto.ChatMessage;
+
+/**
+ * Collects messages decoded on the stream thread and hands them to the main
+ * thread as one batch per {@link #WINDOW_MS} window, so bursts cost one store
+ * update instead of one per event.
+ */
+public class ChatMessageBatcher {
+    public static final long WINDOW_MS = 50;
+
+    private final Cons<Seq<ChatMessage>> onBatch;
+    private final ConcurrentLinkedQueue<ChatMessage> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    public ChatMessageBatcher(Cons<Seq<ChatMessage>> onBatch) {
+        this.onBatch = onBatch;
+    }
+
+    public void add(ChatMessage[] messages) {
+        for (ChatMessage message : messages) {
+            if (message != null) {
+                pending.add(message);
+            }
+        }
+
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+            Timer.schedule(this::flush, WINDOW_MS / 1000f);
+        }
+    }
+
+    // Timer tasks run on the main thread
+    private void flush() {
+        scheduled.set(false);
+
+        Seq<ChatMessage> batch = new Seq<>(pending.size());
+        ChatMessage message;
+
+        while ((message = pending.poll()) != null) {
+            batch.add(message);
+        }
+
+        if (batch.any()) {
+            onBatch.get(batch);
+        }
+    }
+}
@@ -126,6 +126,15 @@ public class ChatService {
                 });
     }
 
+    /** Jumps back to the live messages after scrolling back dropped the newest ones. */
+    public void jumpToNewest(String channelId) {
+        store.showNewest(channelId);
+
+        if (store.getMessages(channelId).isEmpty()) {
+            fetchMessages(channelId, null);
+        }
+    }
+
     public void updateState(String state) {
         stateManager.updateState(state);
     }
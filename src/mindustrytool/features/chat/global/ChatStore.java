@@ -4,6 +4,7 @@ import arc.Core;
 import arc.Events;
 import arc.struct.ObjectMap;
 import arc.struct.ObjectSet;
+import arc.struct.Queue;
 import arc.struct.Seq;
 import mindustrytool.features.chat.global.dto.ChannelDto;
 import mindustrytool.features.chat.global.dto.ChatMessage;
@@ -23,7 +24,7 @@ public class ChatStore {
     public static final String CURRENT_CHANNEL_ID_KEY = "mindustrytool.chat.current-channel-id";
     public static final String LAST_READ_MESSAGES_KEY = "mindustrytool.chat.last-read-messages";
 
-    private final ObjectMap<String, Seq<ChatMessage>> messagesByChannel = new ObjectMap<>();
+    private final ObjectMap<String, ChannelMessages> messagesByChannel = new ObjectMap<>();
     private final ObjectSet<String> fullyLoadedChannels = new ObjectSet<>();
     private final ObjectMap<String, Integer> unreadByChannel = new ObjectMap<>();
     private final ObjectMap<String, Seq<ChatUser>> usersByChannel = new ObjectMap<>();
@@ -105,46 +106,99 @@ public class ChatStore {
         channelsState.set(this.channels);
     }
 
-    public Seq<ChatMessage> getMessages(String channelId) {
-        return messagesByChannel.get(channelId, new Seq<>());
+    public Queue<ChatMessage> getMessages(String channelId) {
+        return channel(channelId).messages();
     }
 
-    public void addMessages(String channelId, Seq<ChatMessage> messages) {
-        Seq<ChatMessage> seq = messagesByChannel.get(channelId);
+    public ChatMessage getMessage(String channelId, String messageId) {
+        ChannelMessages messages = messagesByChannel.get(channelId);
+        return messages == null ? null : messages.get(messageId);
+    }
+
+    /**
+     * Appends new messages to a channel, skipping ones already stored.
+     *
+     * @return the number of messages added
+     */
+    public int addMessages(String channelId, Seq<ChatMessage> messages) {
+        ChannelMessages channel = channel(channelId);
+        int added = channel.append(messages);
 
-        if (seq == null) {
-            seq = new Seq<>();
-            messagesByChannel.put(channelId, seq);
+        if (added == 0) {
+            return 0;
         }
 
-        for (ChatMessage msg : messages) {
-            if (!seq.contains(m -> m.id.equals(msg.id))) {
-                seq.add(msg);
-            }
+        // The reader scrolled back past dropped messages, live ones wait in the
+        // live tail so the history being read stays in place
+        if (channel.isNewestTrimmed()) {
+            channel.trimNewer(ChatConfig.maxMessages());
+            return added;
+        }
+
+        // Older history can be fetched again once it has been dropped
+        if (channel.trimOldest(ChatConfig.maxMessages()) > 0) {
+            fullyLoadedChannels.remove(channelId);
         }
 
         Events.fire(new MessagesUpdateEvent(channelId, false));
+
+        return added;
     }
 
+    /** Prepends a page of older messages, newest first as returned by the api. */
     public void prependMessages(String channelId, Seq<ChatMessage> messages) {
-        Seq<ChatMessage> seq = messagesByChannel.get(channelId);
-        boolean isInitial = seq == null || seq.isEmpty();
-
-        if (seq == null) {
-            seq = new Seq<>();
-            messagesByChannel.put(channelId, seq);
-        }
+        ChannelMessages channel = channel(channelId);
+        boolean isInitial = channel.isEmpty();
 
-        messages.reverse().addAll(seq);
-        messagesByChannel.put(channelId, messages);
+        channel.prepend(messages);
 
         if (isInitial) {
+            channel.trimOldest(ChatConfig.maxMessages());
             fullyLoadedChannels.remove(channelId);
+        } else {
+            // Scrolling back drops the newest messages instead, the older end
+            // stays complete
+            channel.trimNewest(ChatConfig.maxMessages());
         }
 
         Events.fire(new MessagesUpdateEvent(channelId, !isInitial));
     }
 
+    /** @return whether newer messages than the stored ones were dropped while scrolling back */
+    public boolean hasNewer(String channelId) {
+        ChannelMessages messages = messagesByChannel.get(channelId);
+        return messages != null && messages.isNewestTrimmed();
+    }
+
+    /**
+     * Drops the scrolled back history for the live messages received since.
+     * The channel is left empty when none arrived, the newest page has to be
+     * fetched then.
+     */
+    public void showNewest(String channelId) {
+        ChannelMessages channel = messagesByChannel.get(channelId);
+
+        if (channel == null || !channel.isNewestTrimmed()) {
+            return;
+        }
+
+        channel.showNewer();
+        fullyLoadedChannels.remove(channelId);
+
+        Events.fire(new MessagesUpdateEvent(channelId, false));
+    }
+
+    private ChannelMessages channel(String channelId) {
+        ChannelMessages messages = messagesByChannel.get(channelId);
+
+        if (messages == null) {
+            messages = new ChannelMessages();
+            messagesByChannel.put(channelId, messages);
+        }
+
+        return messages;
+    }
+
     public boolean isFullyLoaded(String channelId) {
         return fullyLoadedChannels.contains(channelId);
     }
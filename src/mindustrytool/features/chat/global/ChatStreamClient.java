@@ -1,19 +1,31 @@
 package mindustrytool.features.chat.global;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import arc.Core;
 import arc.func.Cons;
 import arc.struct.Seq;
 import arc.util.Log;
-import arc.util.serialization.Jval;
-import mindustry.io.JsonIO;
+import arc.util.Timer;
 import mindustrytool.Config;
+import mindustrytool.Utils;
 import mindustrytool.features.auth.AuthService;
 import mindustrytool.features.chat.global.dto.ChatMessage;
 
@@ -22,6 +34,7 @@ public class ChatStreamClient {
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String CHAT_ID_HEADER = "x-chat-id";
     private static final String ACCEPT_HEADER = "Accept";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
     private static final String EVENT_STREAM = "text/event-stream";
     private static final String CONNECTED_MESSAGE = "Connected";
     private static final String DATA_EVENT = "data";
@@ -29,18 +42,30 @@ public class ChatStreamClient {
     private static final String HEARTBEAT_EVENT = "heartbeat";
     private static final String CHAT_ID_SETTING_KEY = "mindustrytool.chat.chat-id";
     private static final int CONNECT_TIMEOUT_MS = 10000;
-    private static final long RECONNECT_DELAY_MS = 5000L;
+    private static final long INITIAL_RECONNECT_DELAY_MS = 1000L;
+    private static final long MAX_RECONNECT_DELAY_MS = 60000L;
+    // A stream that closes sooner without delivering anything counts as failed
+    private static final long STABLE_CONNECTION_MS = 30000L;
 
-    private final Cons<Seq<ChatMessage>> onMessages;
+    private final ChatMessageBatcher batcher;
     private final Cons<Boolean> onConnectionChange;
     private final AtomicBoolean isStreaming = new AtomicBoolean(false);
     private final AtomicBoolean isConnected = new AtomicBoolean(false);
 
-    private volatile Thread streamThread;
-    private volatile HttpURLConnection currentConnection;
+    private Transport transport;
+    private Transport.Connection currentConnection;
+    private Timer.Task reconnectTask;
+
+    // Bumped on every connect and disconnect so callbacks of an old connection
+    // are ignored
+    private int generation = 0;
+    private int failedAttempts = 0;
+    private long connectedAt = 0;
+    private volatile long reconnectDelayMs = INITIAL_RECONNECT_DELAY_MS;
+    private volatile String lastEventId;
 
     public ChatStreamClient(Cons<Seq<ChatMessage>> onMessages, Cons<Boolean> onConnectionChange) {
-        this.onMessages = onMessages;
+        this.batcher = new ChatMessageBatcher(onMessages);
         this.onConnectionChange = onConnectionChange;
     }
 
@@ -54,130 +79,196 @@ public class ChatStreamClient {
         }
 
         isStreaming.set(true);
-        streamThread = new Thread(this::runStreamLoop, "ChatStreamThread");
-        streamThread.setDaemon(true);
-        streamThread.start();
+        failedAttempts = 0;
+        open(++generation);
     }
 
     public synchronized void disconnect() {
         isStreaming.set(false);
+        generation++;
         updateConnection(false);
 
+        if (reconnectTask != null) {
+            reconnectTask.cancel();
+            reconnectTask = null;
+        }
+
         if (currentConnection != null) {
             Log.info("Disconnecting chat stream");
+            currentConnection.close();
             currentConnection = null;
         }
+    }
 
-        if (streamThread != null) {
-            streamThread.interrupt();
-            streamThread = null;
-        }
+    private void open(int connectGeneration) {
+        Log.info("Connecting to chat stream");
+
+        AuthService.getInstance().refreshTokenIfNeeded().handle((refreshed, error) -> {
+            if (error != null) {
+                Log.err("Failed to refresh token for chat stream", error);
+            }
+
+            openConnection(connectGeneration);
+            return null;
+        });
     }
 
-    private void runStreamLoop() {
-        while (isStreaming.get()) {
-            HttpURLConnection connection = null;
+    private synchronized void openConnection(int connectGeneration) {
+        if (!isStreaming.get() || connectGeneration != generation) {
+            return;
+        }
 
-            try {
-                Log.info("Connecting to chat stream");
-                AuthService.getInstance().refreshTokenIfNeeded().get();
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(ACCEPT_HEADER, EVENT_STREAM);
+        headers.put(CHAT_ID_HEADER, getOrCreateChatId());
 
-                connection = openConnection();
-                currentConnection = connection;
+        String accessToken = AuthService.getInstance().getAccessToken();
+        if (accessToken != null) {
+            headers.put(AUTHORIZATION_HEADER, "Bearer " + accessToken);
+        }
 
-                int status = connection.getResponseCode();
-                if (status != HttpURLConnection.HTTP_OK) {
-                    Log.err("Chat stream failed: " + status);
-                    updateConnection(false);
-                    waitBeforeReconnect();
-                    continue;
-                }
+        // Lets the server replay only what was missed while disconnected
+        if (lastEventId != null) {
+            headers.put(LAST_EVENT_ID_HEADER, lastEventId);
+        }
 
-                updateConnection(true);
-                Log.info("Chat stream connected");
-                readEvents(connection);
-            } catch (Exception e) {
-                if (isStreaming.get()) {
-                    Log.err("Chat stream error", e);
-                    updateConnection(false);
-                }
-            } finally {
-                updateConnection(false);
+        SseParser parser = new SseParser(new SseParser.Listener() {
+            private boolean delivered = false;
+
+            @Override
+            public void onEvent(String id, String event, String data) {
+                if (isCurrent(connectGeneration)) {
+                    if (!delivered) {
+                        delivered = true;
+                        delivering(connectGeneration);
+                    }
+
+                    dispatchEvent(event, data);
 
-                if (connection != null) {
-                    connection.disconnect();
+                    if (id != null) {
+                        lastEventId = id;
+                    }
                 }
+            }
 
-                currentConnection = null;
+            @Override
+            public void onRetry(long millis) {
+                reconnectDelayMs = Math.max(100, Math.min(millis, MAX_RECONNECT_DELAY_MS));
             }
+        });
 
-            waitBeforeReconnect();
+        try {
+            currentConnection = transport().open(Config.API_v4_URL + STREAM_ENDPOINT, headers,
+                    new Transport.Handler() {
+                        @Override
+                        public void onOpen(int status) {
+                            if (status == HttpURLConnection.HTTP_OK) {
+                                connected(connectGeneration);
+                            } else {
+                                Log.err("Chat stream failed: " + status);
+                            }
+                        }
+
+                        @Override
+                        public void onData(ByteBuffer buffer) {
+                            parser.feed(buffer);
+                        }
+
+                        @Override
+                        public void onClose(Throwable error) {
+                            closed(connectGeneration, error);
+                        }
+                    });
+        } catch (Exception e) {
+            closed(connectGeneration, e);
         }
     }
 
-    private HttpURLConnection openConnection() throws Exception {
-        URL url = new URL(Config.API_v4_URL + STREAM_ENDPOINT);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty(ACCEPT_HEADER, EVENT_STREAM);
-        connection.setRequestProperty(CHAT_ID_HEADER, getOrCreateChatId());
-        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
-        connection.setReadTimeout(0);
+    private synchronized boolean isCurrent(int connectGeneration) {
+        return isStreaming.get() && connectGeneration == generation;
+    }
 
-        String accessToken = AuthService.getInstance().getAccessToken();
-        if (accessToken != null) {
-            connection.setRequestProperty(AUTHORIZATION_HEADER, "Bearer " + accessToken);
+    private synchronized void connected(int connectGeneration) {
+        if (!isCurrent(connectGeneration)) {
+            return;
         }
 
-        return connection;
+        connectedAt = System.currentTimeMillis();
+        updateConnection(true);
+        Log.info("Chat stream connected");
     }
 
-    private String getOrCreateChatId() {
-        String chatId = Core.settings.getString(CHAT_ID_SETTING_KEY, null);
-        if (chatId != null && !chatId.trim().isEmpty()) {
-            return chatId;
+    // A 200 alone does not reset the backoff, a proxy may accept and close at once
+    private synchronized void delivering(int connectGeneration) {
+        if (isCurrent(connectGeneration)) {
+            failedAttempts = 0;
         }
+    }
 
-        String generatedChatId = UUID.randomUUID().toString();
-        Core.settings.put(CHAT_ID_SETTING_KEY, generatedChatId);
-        Core.settings.forceSave();
-        return generatedChatId;
+    private synchronized void closed(int connectGeneration, Throwable error) {
+        if (!isCurrent(connectGeneration)) {
+            return;
+        }
+
+        currentConnection = null;
+        updateConnection(false);
+
+        if (connectedAt != 0 && System.currentTimeMillis() - connectedAt >= STABLE_CONNECTION_MS) {
+            failedAttempts = 0;
+        }
+
+        connectedAt = 0;
+
+        if (error != null) {
+            Log.err("Chat stream error", error);
+        }
+
+        int nextGeneration = ++generation;
+        long delay = nextReconnectDelay();
+
+        Log.info("Reconnecting to chat stream in @ms", delay);
+        reconnectTask = Timer.schedule(() -> open(nextGeneration), delay / 1000f);
     }
 
-    private void readEvents(HttpURLConnection connection) throws Exception {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-        String eventName = DATA_EVENT;
-        StringBuilder dataBuilder = new StringBuilder();
-        String line;
-
-        while (isStreaming.get() && (line = reader.readLine()) != null) {
-            if (line.isEmpty()) {
-                dispatchEvent(eventName, dataBuilder.toString());
-                eventName = DATA_EVENT;
-                dataBuilder.setLength(0);
-                continue;
-            }
+    /**
+     * Exponential backoff with equal jitter, so clients dropped by the same
+     * server restart do not reconnect in lockstep.
+     */
+    private long nextReconnectDelay() {
+        int exponent = Math.min(failedAttempts++, 16);
+        long ceiling = Math.min(MAX_RECONNECT_DELAY_MS, reconnectDelayMs << exponent);
+        long half = ceiling / 2;
 
-            if (line.startsWith(":")) {
-                continue;
-            }
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
 
-            if (line.startsWith("event:")) {
-                eventName = line.substring("event:".length()).trim();
-                continue;
-            }
+    private Transport transport() {
+        if (transport == null) {
+            transport = hasHttpClient() ? new HttpClientTransport() : new UrlConnectionTransport();
+        }
 
-            if (line.startsWith("data:")) {
-                if (dataBuilder.length() > 0) {
-                    dataBuilder.append('\n');
-                }
-                dataBuilder.append(line.substring("data:".length()).trim());
-            }
+        return transport;
+    }
+
+    private static boolean hasHttpClient() {
+        try {
+            Class.forName("java.net.http.HttpClient");
+            return true;
+        } catch (Throwable e) {
+            return false;
         }
+    }
 
-        if (dataBuilder.length() > 0 || !eventName.isEmpty()) {
-            dispatchEvent(eventName, dataBuilder.toString());
+    private String getOrCreateChatId() {
+        String chatId = Core.settings.getString(CHAT_ID_SETTING_KEY, null);
+        if (chatId != null && !chatId.trim().isEmpty()) {
+            return chatId;
         }
+
+        String generatedChatId = UUID.randomUUID().toString();
+        Core.settings.put(CHAT_ID_SETTING_KEY, generatedChatId);
+        Core.settings.forceSave();
+        return generatedChatId;
     }
 
     private void dispatchEvent(String eventName, String data) {
@@ -193,28 +284,41 @@ public class ChatStreamClient {
         }
 
         try {
-            Jval json = Jval.read(data);
-
-            if (json.isString() && CONNECTED_MESSAGE.equals(json.asString())) {
-                updateConnection(true);
-                return;
+            // The first token decides the target type, so the payload is parsed
+            // only once
+            switch (firstToken(data)) {
+                case '"':
+                    if (CONNECTED_MESSAGE.equals(Utils.fromJson(String.class, data))) {
+                        updateConnection(true);
+                    }
+                    break;
+
+                case '[':
+                    batcher.add(Utils.fromJson(ChatMessage[].class, data));
+                    break;
+
+                case '{':
+                    batcher.add(new ChatMessage[] { Utils.fromJson(ChatMessage.class, data) });
+                    break;
+
+                default:
+                    break;
             }
-
-            Seq<ChatMessage> messages = parseMessages(json, data);
-            Core.app.post(() -> onMessages.get(messages));
         } catch (Exception e) {
             Log.err("Failed to parse chat message", e);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Seq<ChatMessage> parseMessages(Jval json, String data) {
-        if (json.isArray()) {
-            return JsonIO.json.fromJson(Seq.class, ChatMessage.class, data);
+    private static char firstToken(String data) {
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
         }
 
-        ChatMessage message = JsonIO.json.fromJson(ChatMessage.class, data);
-        return Seq.with(message);
+        return 0;
     }
 
     private void updateConnection(boolean connected) {
@@ -224,17 +328,6 @@ public class ChatStreamClient {
         }
     }
 
-    private void waitBeforeReconnect() {
-        if (!isStreaming.get()) {
-            return;
-        }
-
-        try {
-            Thread.sleep(RECONNECT_DELAY_MS);
-        } catch (InterruptedException ignored) {
-        }
-    }
-
     private enum StreamEventType {
         HEARTBEAT,
         DATA,
@@ -253,4 +346,156 @@ public class ChatStreamClient {
             return UNKNOWN;
         }
     }
+
+    private interface Transport {
+        interface Connection {
+            void close();
+        }
+
+        interface Handler {
+            void onOpen(int status);
+
+            void onData(ByteBuffer buffer);
+
+            void onClose(Throwable error);
+        }
+
+        Connection open(String url, Map<String, String> headers, Handler handler) throws Exception;
+    }
+
+    /**
+     * Streams on java.net.http, no thread is parked while waiting for events.
+     * Only referenced when the module is present, Android and trimmed runtimes
+     * fall back to {@link UrlConnectionTransport}.
+     */
+    private static class HttpClientTransport implements Transport {
+        private final HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+                .build();
+
+        @Override
+        public Connection open(String url, Map<String, String> headers, Handler handler) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+            headers.forEach(request::header);
+
+            AtomicBoolean closed = new AtomicBoolean(false);
+            Flow.Subscription[] subscription = new Flow.Subscription[1];
+
+            Cons<Throwable> close = error -> {
+                if (closed.compareAndSet(false, true)) {
+                    handler.onClose(error);
+                }
+            };
+
+            CompletableFuture<HttpResponse<Void>> future = client.sendAsync(request.build(), info -> {
+                handler.onOpen(info.statusCode());
+
+                if (info.statusCode() != HttpURLConnection.HTTP_OK) {
+                    return BodySubscribers.replacing(null);
+                }
+
+                return BodySubscribers.fromSubscriber(new Flow.Subscriber<List<ByteBuffer>>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription value) {
+                        subscription[0] = value;
+                        value.request(1);
+                    }
+
+                    @Override
+                    public void onNext(List<ByteBuffer> buffers) {
+                        try {
+                            for (ByteBuffer buffer : buffers) {
+                                handler.onData(buffer);
+                            }
+                            subscription[0].request(1);
+                        } catch (Throwable e) {
+                            subscription[0].cancel();
+                            close.get(e);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        close.get(error);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        close.get(null);
+                    }
+                });
+            });
+
+            future.whenComplete((response, error) -> close.get(error));
+
+            return () -> {
+                closed.set(true);
+
+                if (subscription[0] != null) {
+                    subscription[0].cancel();
+                }
+
+                future.cancel(true);
+            };
+        }
+    }
+
+    /** Blocking fallback for runtimes without java.net.http. */
+    private static class UrlConnectionTransport implements Transport {
+        @Override
+        public Connection open(String url, Map<String, String> headers, Handler handler) {
+            AtomicBoolean closed = new AtomicBoolean(false);
+            HttpURLConnection[] current = new HttpURLConnection[1];
+
+            Thread thread = new Thread(() -> {
+                Throwable failure = null;
+
+                try {
+                    HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+                    current[0] = connection;
+                    connection.setRequestMethod("GET");
+                    connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+                    connection.setReadTimeout(0);
+                    headers.forEach(connection::setRequestProperty);
+
+                    int status = connection.getResponseCode();
+                    handler.onOpen(status);
+
+                    if (status == HttpURLConnection.HTTP_OK) {
+                        byte[] buffer = new byte[8192];
+
+                        try (InputStream input = connection.getInputStream()) {
+                            int read;
+                            while (!closed.get() && (read = input.read(buffer)) != -1) {
+                                handler.onData(ByteBuffer.wrap(buffer, 0, read));
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    if (current[0] != null) {
+                        current[0].disconnect();
+                    }
+                }
+
+                if (closed.compareAndSet(false, true)) {
+                    handler.onClose(failure);
+                }
+            }, "ChatStreamThread");
+
+            thread.setDaemon(true);
+            thread.start();
+
+            return () -> {
+                closed.set(true);
+
+                if (current[0] != null) {
+                    current[0].disconnect();
+                }
+
+                thread.interrupt();
+            };
+        }
+    }
 }
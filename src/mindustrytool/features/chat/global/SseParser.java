@@ -0,0 +1,135 @@
+package mindustrytool.features.chat.global;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental server-sent events parser. Bytes can be fed in chunks of any
+ * size, a line split across chunks (or across a multi-byte character) is kept
+ * until its terminator arrives.
+ */
+public class SseParser {
+    public interface Listener {
+        void onEvent(String id, String event, String data);
+
+        default void onRetry(long millis) {
+        }
+    }
+
+    private final Listener listener;
+    private final StringBuilder data = new StringBuilder();
+
+    private byte[] line = new byte[256];
+    private int lineLength = 0;
+    private boolean skipLineFeed = false;
+
+    private boolean hasData = false;
+    private String event = null;
+    private String lastEventId = null;
+
+    public SseParser(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void feed(ByteBuffer buffer) {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+
+            if (skipLineFeed) {
+                skipLineFeed = false;
+
+                if (b == '\n') {
+                    continue;
+                }
+            }
+
+            if (b == '\n' || b == '\r') {
+                skipLineFeed = b == '\r';
+                processLine();
+                lineLength = 0;
+                continue;
+            }
+
+            if (lineLength == line.length) {
+                byte[] grown = new byte[line.length * 2];
+                System.arraycopy(line, 0, grown, 0, lineLength);
+                line = grown;
+            }
+
+            line[lineLength++] = b;
+        }
+    }
+
+    private void processLine() {
+        if (lineLength == 0) {
+            dispatch();
+            return;
+        }
+
+        if (line[0] == ':') {
+            return;
+        }
+
+        String text = new String(line, 0, lineLength, StandardCharsets.UTF_8);
+        int colon = text.indexOf(':');
+
+        String field = colon == -1 ? text : text.substring(0, colon);
+        String value = "";
+
+        if (colon != -1) {
+            int start = colon + 1;
+
+            if (start < text.length() && text.charAt(start) == ' ') {
+                start++;
+            }
+
+            value = text.substring(start);
+        }
+
+        switch (field) {
+            case "event":
+                event = value;
+                break;
+
+            case "data":
+                if (hasData) {
+                    data.append('\n');
+                }
+                data.append(value);
+                hasData = true;
+                break;
+
+            case "id":
+                if (value.indexOf('\0') == -1) {
+                    lastEventId = value;
+                }
+                break;
+
+            case "retry":
+                try {
+                    listener.onRetry(Long.parseLong(value));
+                } catch (NumberFormatException ignored) {
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void dispatch() {
+        // Unlike the spec, named events without data are still delivered, the
+        // server sends heartbeats that way
+        if (hasData || event != null) {
+            listener.onEvent(lastEventId, event, data.toString());
+        }
+
+        clearEvent();
+    }
+
+    private void clearEvent() {
+        data.setLength(0);
+        hasData = false;
+        event = null;
+    }
+}
@@ -82,8 +82,7 @@ public class ChatInput extends Table {
         if (AuthService.getInstance().isLoggedIn()) {
             String currentChannelId = ChatStore.getInstance().getCurrentChannelId();
             if (replyingToMessageId != null && currentChannelId != null) {
-                ChatMessage repliedMsg = ChatStore.getInstance().getMessages(currentChannelId)
-                        .find(m -> m.id.equals(replyingToMessageId));
+                ChatMessage repliedMsg = ChatStore.getInstance().getMessage(currentChannelId, replyingToMessageId);
                 if (repliedMsg != null) {
                     Table replyContainer = new Table();
                     replyContainer.background(Styles.black5);
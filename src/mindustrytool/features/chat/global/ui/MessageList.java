@@ -13,6 +13,7 @@ import arc.scene.ui.layout.Stack;
 import arc.scene.ui.layout.Table;
 import arc.struct.ObjectMap;
 import arc.struct.ObjectSet;
+import arc.struct.Queue;
 import arc.struct.Seq;
 import arc.util.Align;
 import arc.util.Log;
@@ -20,11 +21,11 @@ import arc.util.Scaling;
 import arc.util.Time;
 import mindustry.Vars;
 import mindustry.game.Schematic;
-import mindustry.game.Schematics;
 import mindustry.gen.Icon;
 import mindustry.gen.Tex;
 import mindustry.ui.Styles;
 import mindustry.ui.dialogs.SchematicsDialog.SchematicImage;
+import mindustrytool.Utils;
 import mindustrytool.features.browser.map.MapDialog;
 import mindustrytool.features.browser.map.MapImage;
 import mindustrytool.features.browser.map.MapInfoDialog;
@@ -71,6 +72,33 @@ public class MessageList extends Table {
     private final ObjectMap<String, String> translatedMessages = new ObjectMap<>();
     private final ObjectSet<String> translatingMessageIds = new ObjectSet<>();
 
+    private static final int MAX_POOLED_ROWS = 64;
+
+    // Rows further than this many viewport heights away are released
+    private static final float RELEASE_DISTANCE = 2f;
+
+    /**
+     * A slot in the list for one message. Rows outside the viewport only keep a
+     * spacer with their last known height, their entry table goes back to the
+     * pool.
+     */
+    private static class Row {
+        final ChatMessage msg;
+        final Table slot = new Table();
+        Table entry;
+        float height = -1;
+
+        Row(ChatMessage msg) {
+            this.msg = msg;
+        }
+    }
+
+    private final Seq<Row> rows = new Seq<>();
+    private final ObjectMap<String, Row> rowsById = new ObjectMap<>();
+    private final Seq<Table> rowPool = new Seq<>();
+    private final Seq<Row> builtAbove = new Seq<>();
+    private final Table endTable = new Table();
+
     private String expandedMessageId = null;
     private ChatInput chatInput;
 
@@ -79,16 +107,20 @@ public class MessageList extends Table {
         messageTable = new Table();
         messageTable.top().left();
 
+        endTable.add("End");
+
         scrollPane = new ScrollPane(messageTable);
         scrollPane.setScrollingDisabled(true, false);
         scrollPane.setOverscroll(false, false);
         scrollPane.setFadeScrollBars(false);
         scrollPane.update(() -> {
+            updateVisibleRows();
+
             ChatStore store = ChatStore.getInstance();
             String currentChannelId = store.getCurrentChannelId();
             if (scrollPane.getScrollY() < 100 && !store.isLoadingMessages() && currentChannelId != null
                     && !store.isFullyLoaded(currentChannelId)) {
-                Seq<ChatMessage> msgs = store.getMessages(currentChannelId);
+                Queue<ChatMessage> msgs = store.getMessages(currentChannelId);
                 if (msgs != null && !msgs.isEmpty()) {
                     ChatService.getInstance().fetchMessages(currentChannelId, msgs.first().id);
                 }
@@ -102,26 +134,46 @@ public class MessageList extends Table {
                 .get()
                 .setFontScale(scale);
 
+        // Scrolling back dropped the newest messages, live ones wait in the store
+        Table jumpTable = new Table();
+        jumpTable.bottom().right();
+        jumpTable.button("@chat.jump-to-latest", Styles.defaultt, () -> {
+            String currentChannelId = ChatStore.getInstance().getCurrentChannelId();
+
+            if (currentChannelId != null) {
+                ChatService.getInstance().jumpToNewest(currentChannelId);
+                scrollToBottom();
+            }
+        }).visible(() -> {
+            String currentChannelId = ChatStore.getInstance().getCurrentChannelId();
+            return currentChannelId != null && ChatStore.getInstance().hasNewer(currentChannelId);
+        }).pad(8 * scale).get().getLabel().setFontScale(scale);
+
         Stack stack = new Stack();
         stack.add(loadingTable);
         stack.add(scrollPane);
+        stack.add(jumpTable);
 
         add(stack).grow();
 
         Events.on(MessagesUpdateEvent.class, e -> {
             if (e != null && e.channelId.equals(ChatStore.getInstance().getCurrentChannelId())) {
+                pruneRows(e.channelId);
+
                 float oldMaxY = scrollPane.getMaxY();
                 float oldScrollY = scrollPane.getScrollY();
-
-                rebuild();
+                var nearBottom = oldScrollY >= oldMaxY - 100;
 
                 if (e.isPrepend) {
+                    prependRows();
+
                     Core.app.post(() -> {
                         float newMaxY = scrollPane.getMaxY();
                         scrollPane.setScrollYForce(oldScrollY + (newMaxY - oldMaxY));
                     });
                 } else {
-                    var nearBottom = scrollPane.getScrollY() >= scrollPane.getMaxY() - 100;
+                    appendRows();
+
                     if (nearBottom) {
                         scrollToBottom();
                     }
@@ -139,215 +191,463 @@ public class MessageList extends Table {
     }
 
     public void rebuild() {
-        messageTable.clear();
-        messageTable.top().left();
+        for (Row row : rows) {
+            releaseRow(row);
+        }
+
+        rows.clear();
+        rowsById.clear();
 
         ChatStore store = ChatStore.getInstance();
         String currentChannelId = store.getCurrentChannelId();
         if (currentChannelId != null) {
             ChatConfig.lastRead(Instant.now());
-        } else {
+
+            Queue<ChatMessage> channelMsgs = store.getMessages(currentChannelId);
+            if (channelMsgs != null) {
+                for (ChatMessage msg : channelMsgs) {
+                    addRow(rows.size, msg);
+                }
+            }
+        }
+
+        layoutRows();
+    }
+
+    private void appendRows() {
+        Queue<ChatMessage> channelMsgs = ChatStore.getInstance().getMessages(ChatStore.getInstance().getCurrentChannelId());
+        int start = rows.isEmpty() ? 0 : lastIndexOf(channelMsgs, rows.peek().msg.id) + 1;
+
+        if (start == 0 && !rows.isEmpty()) {
+            rebuild();
+            return;
+        }
+
+        ChatConfig.lastRead(Instant.now());
+
+        int previousLast = rows.size - 1;
+
+        for (int i = start; i < channelMsgs.size; i++) {
+            Row row = addRow(rows.size, channelMsgs.get(i));
+            messageTable.add(row.slot).growX().row();
+        }
+
+        // The previous last row spaces itself depending on who sent the next one
+        if (previousLast >= 0 && previousLast < rows.size - 1) {
+            refreshRow(rows.get(previousLast));
+        }
+    }
+
+    private void prependRows() {
+        Queue<ChatMessage> channelMsgs = ChatStore.getInstance().getMessages(ChatStore.getInstance().getCurrentChannelId());
+        int end = rows.isEmpty() ? channelMsgs.size : lastIndexOf(channelMsgs, rows.first().msg.id);
+
+        if (end == -1) {
+            rebuild();
+            return;
+        }
+
+        for (int i = 0; i < end; i++) {
+            addRow(i, channelMsgs.get(i));
+        }
+
+        if (end > 0 && end < rows.size) {
+            refreshRow(rows.get(end));
+        }
+
+        // Existing rows keep their built entries, only the slot order changes
+        layoutRows();
+    }
+
+    /** Drops the rows of messages the store no longer keeps, it trims channels at either end. */
+    private void pruneRows(String channelId) {
+        ChatStore store = ChatStore.getInstance();
+        float removedAbove = 0;
+        boolean above = true;
+        boolean removed = false;
+
+        for (int i = 0; i < rows.size; i++) {
+            Row row = rows.get(i);
+
+            if (store.getMessage(channelId, row.msg.id) != null) {
+                above = false;
+                continue;
+            }
+
+            if (above) {
+                removedAbove += row.slot.getHeight();
+            }
+
+            releaseRow(row);
+            row.slot.remove();
+            rowsById.remove(row.msg.id);
+            rows.remove(i--);
+            removed = true;
+        }
+
+        if (!removed) {
             return;
         }
 
-        if (store.isFullyLoaded(currentChannelId)) {
-            messageTable.add("End").row();
+        float scrollY = scrollPane.getScrollY();
+
+        messageTable.invalidateHierarchy();
+        scrollPane.validate();
+
+        // Keep the visible content in place when older rows went away above it
+        if (removedAbove > 0) {
+            scrollPane.setScrollYForce(Math.max(0, scrollY - removedAbove));
         }
+    }
 
-        Seq<ChatMessage> channelMsgs = store.getMessages(currentChannelId);
-        if (channelMsgs == null)
+    private int lastIndexOf(Queue<ChatMessage> messages, String id) {
+        for (int i = messages.size - 1; i >= 0; i--) {
+            if (messages.get(i).id.equals(id)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private Row addRow(int index, ChatMessage msg) {
+        Row row = new Row(msg);
+        row.slot.top().left();
+        rows.insert(index, row);
+        rowsById.put(msg.id, row);
+        showSpacer(row);
+
+        return row;
+    }
+
+    private void layoutRows() {
+        messageTable.clearChildren();
+        messageTable.top().left();
+
+        String currentChannelId = ChatStore.getInstance().getCurrentChannelId();
+        if (currentChannelId != null && ChatStore.getInstance().isFullyLoaded(currentChannelId)) {
+            messageTable.add(endTable).row();
+        }
+
+        for (Row row : rows) {
+            messageTable.add(row.slot).growX().row();
+        }
+    }
+
+    private void updateVisibleRows() {
+        if (rows.isEmpty()) {
             return;
+        }
+
+        float viewHeight = scrollPane.getHeight();
+        float top = messageTable.getHeight() - scrollPane.getScrollY();
+        float bottom = top - viewHeight;
+
+        float buildTop = top + viewHeight * 0.5f;
+        float buildBottom = bottom - viewHeight * 0.5f;
+        float releaseTop = top + viewHeight * RELEASE_DISTANCE;
+        float releaseBottom = bottom - viewHeight * RELEASE_DISTANCE;
+
+        builtAbove.clear();
+        float aboveDelta = 0;
+        boolean changed = false;
+
+        for (int i = 0; i < rows.size; i++) {
+            Row row = rows.get(i);
+            float slotBottom = row.slot.y;
+            float slotTop = slotBottom + row.slot.getHeight();
+
+            if (row.entry == null) {
+                if (slotTop >= buildBottom && slotBottom <= buildTop) {
+                    float before = row.slot.getHeight();
+                    buildRow(row, i);
+                    changed = true;
+
+                    if (slotBottom > top) {
+                        builtAbove.add(row);
+                        aboveDelta -= before;
+                    }
+                }
+            } else if (slotTop < releaseBottom || slotBottom > releaseTop) {
+                releaseRow(row);
+                showSpacer(row);
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        messageTable.invalidateHierarchy();
+        scrollPane.validate();
 
+        // Rows built above the viewport change height, keep the visible content
+        // in place
+        if (builtAbove.any()) {
+            for (Row row : builtAbove) {
+                aboveDelta += row.slot.getPrefHeight();
+            }
+
+            if (aboveDelta != 0) {
+                scrollPane.setScrollYForce(scrollPane.getScrollY() + aboveDelta);
+            }
+        }
+    }
+
+    private float estimatedRowHeight() {
+        return 56f * ChatConfig.scale();
+    }
+
+    private void showSpacer(Row row) {
+        row.slot.clearChildren();
+        row.slot.add().height(row.height > 0 ? row.height : estimatedRowHeight()).growX();
+    }
+
+    private void buildRow(Row row, int index) {
+        Table entry = rowPool.isEmpty() ? new Table() : rowPool.pop();
+        entry.clear();
+
+        float padBottom = buildEntry(entry, row, index);
+
+        row.entry = entry;
+        row.slot.clearChildren();
+        row.slot.add(entry).growX().padBottom(padBottom);
+    }
+
+    private void releaseRow(Row row) {
+        if (row.entry == null) {
+            return;
+        }
+
+        if (row.slot.getHeight() > 0) {
+            row.height = row.slot.getHeight();
+        }
+
+        row.slot.clearChildren();
+        row.entry.clear();
+
+        if (rowPool.size < MAX_POOLED_ROWS) {
+            rowPool.add(row.entry);
+        }
+
+        row.entry = null;
+    }
+
+    private void refreshRow(String messageId) {
+        if (messageId == null) {
+            return;
+        }
+
+        Row row = rowsById.get(messageId);
+        if (row != null) {
+            refreshRow(row);
+        }
+    }
+
+    private void refreshRow(Row row) {
+        if (row.entry == null) {
+            return;
+        }
+
+        releaseRow(row);
+        buildRow(row, rows.indexOf(row, true));
+    }
+
+    private void setExpanded(String messageId) {
+        String previous = expandedMessageId;
+        expandedMessageId = messageId;
+
+        refreshRow(previous);
+        refreshRow(messageId);
+    }
+
+    private boolean isSameUser(int index) {
+        return index > 0 && index < rows.size
+                && Objects.equals(rows.get(index - 1).msg.createdBy, rows.get(index).msg.createdBy);
+    }
+
+    private float buildEntry(Table entry, Row row, int index) {
         float scale = ChatConfig.scale();
         ChatTranslationFeature translationFeature = FeatureManager.getInstance()
                 .getFeature(ChatTranslationFeature.class);
         boolean isTranslationEnabled = translationFeature != null && translationFeature.isEnabled();
 
-        for (int i = 0; i < channelMsgs.size; i++) {
-            ChatMessage msg = channelMsgs.get(i);
-            boolean isSameUser = i > 0 && Objects.equals(channelMsgs.get(i - 1).createdBy, msg.createdBy);
-            boolean isNextSameUser = i < channelMsgs.size - 1
-                    && Objects.equals(channelMsgs.get(i + 1).createdBy, msg.createdBy);
+        ChatMessage msg = row.msg;
+        boolean isSameUser = isSameUser(index);
+        boolean isNextSameUser = isSameUser(index + 1);
 
-            Table entry = new Table();
-            entry.setBackground(null);
+        entry.setBackground(null);
+
+        entry.table(avatar -> {
+            avatar.top();
+            if (!isSameUser) {
+                UserService.findUserById(msg.createdBy).thenAccept(data -> {
+                    Core.app.post(() -> {
+                        avatar.clear();
+                        if (data.getImageUrl() != null && !data.getImageUrl().isEmpty()) {
+                            avatar.add(new NetworkImage(data.getImageUrl())).size(40 * scale);
+                        } else {
+                            avatar.add(new Image(Icon.players)).size(40 * scale);
+                        }
+                    });
+                });
+            }
+        }).width(48 * scale).top().padLeft(8 * scale).padRight(8 * scale).padTop(isSameUser ? 0 : 8 * scale)
+                .padBottom(isNextSameUser ? 0 : 8 * scale);
+
+        entry.table(cardContainer -> {
+            cardContainer.top().left();
+
+            Stack cardStack = new Stack();
+
+            cardStack.add(new Table(card -> {
+                card.top().left();
 
-            entry.table(avatar -> {
-                avatar.top();
                 if (!isSameUser) {
+                    Label label = new Label("...");
+                    label.setStyle(Styles.defaultLabel);
+                    label.setFontScale(scale);
+
                     UserService.findUserById(msg.createdBy).thenAccept(data -> {
                         Core.app.post(() -> {
-                            avatar.clear();
-                            if (data.getImageUrl() != null && !data.getImageUrl().isEmpty()) {
-                                avatar.add(new NetworkImage(data.getImageUrl())).size(40 * scale);
-                            } else {
-                                avatar.add(new Image(Icon.players)).size(40 * scale);
-                            }
-                        });
-                    });
-                }
-            }).width(48 * scale).top().padLeft(8 * scale).padRight(8 * scale).padTop(isSameUser ? 0 : 8 * scale)
-                    .padBottom(isNextSameUser ? 0 : 8 * scale);
-
-            entry.table(cardContainer -> {
-                cardContainer.top().left();
-
-                Stack cardStack = new Stack();
-
-                cardStack.add(new Table(card -> {
-                    card.top().left();
-
-                    if (!isSameUser) {
-                        Label label = new Label("...");
-                        label.setStyle(Styles.defaultLabel);
-                        label.setFontScale(scale);
-
-                        UserService.findUserById(msg.createdBy).thenAccept(data -> {
-                            Core.app.post(() -> {
-                                String timeStr = msg.createdAt;
-                                if (msg.createdAt != null) {
-                                    try {
-                                        Instant instant = Instant.parse(msg.createdAt);
-                                        timeStr = DateTimeFormatter.ofPattern("HH:mm")
-                                                .withZone(ZoneId.systemDefault())
-                                                .format(instant);
-                                    } catch (Throwable err) {
-                                        Log.err(err);
-                                    }
+                            String timeStr = msg.createdAt;
+                            if (msg.createdAt != null) {
+                                try {
+                                    Instant instant = Instant.parse(msg.createdAt);
+                                    timeStr = DateTimeFormatter.ofPattern("HH:mm")
+                                            .withZone(ZoneId.systemDefault())
+                                            .format(instant);
+                                } catch (Throwable err) {
+                                    Log.err(err);
                                 }
+                            }
 
-                                Color color = data.getHighestRole()
-                                        .map(r -> {
-                                            try {
-                                                return Color.valueOf(r.getColor());
-                                            } catch (Exception err) {
-                                                return Color.white;
-                                            }
-                                        })
-                                        .orElse(Color.white);
-
-                                label.setText("[#" + color.toString() + "]" + data.getName() + "[white]"
-                                        + (timeStr.isEmpty() ? "" : " [gray]" + timeStr));
-                            });
+                            Color color = data.getHighestRole()
+                                    .map(r -> {
+                                        try {
+                                            return Color.valueOf(r.getColor());
+                                        } catch (Exception err) {
+                                            return Color.white;
+                                        }
+                                    })
+                                    .orElse(Color.white);
+
+                            label.setText("[#" + color.toString() + "]" + data.getName() + "[white]"
+                                    + (timeStr.isEmpty() ? "" : " [gray]" + timeStr));
                         });
+                    });
 
-                        card.add(label).left().row();
-                    }
-
-                    if (msg.replyTo != null && !msg.replyTo.isEmpty()) {
-                        ChatMessage repliedMsg = channelMsgs.find(m -> m.id.equals(msg.replyTo));
-                        if (repliedMsg != null) {
-                            card.table(replyTable -> {
-                                replyTable.center().left();
-                                replyTable.image(Icon.rightSmall).size(16 * scale).padRight(4 * scale)
-                                        .color(Color.gray);
-
-                                Label replyContent = new Label(repliedMsg.content.replace('\n', ' '));
-                                replyContent.setFontScale(scale);
-                                replyContent.setColor(Color.gray);
-                                replyContent.setEllipsis(true);
-                                replyTable.add(replyContent).minWidth(0).maxWidth(200 * scale);
-                            }).growX().padTop(isSameUser ? 2 * scale : 0).padBottom(0).row();
-                        }
-                    }
+                    card.add(label).left().row();
+                }
 
-                    card.table(c -> renderContent(c, msg.content, scale)).top().left().growX()
-                            .padTop(isSameUser && (msg.replyTo == null || msg.replyTo.isEmpty()) ? 2 * scale : 0);
-                    if (translatedMessages.containsKey(msg.id)) {
-                        card.row();
-                        Label translated = new Label(translatedMessages.get(msg.id));
-                        translated.setColor(Color.gray);
-                        translated.setFontScale(scale * 0.9f);
-                        translated.setWrap(true);
-                        card.add(translated).left().growX().padTop(4 * scale);
+                if (msg.replyTo != null && !msg.replyTo.isEmpty()) {
+                    Row repliedRow = rowsById.get(msg.replyTo);
+                    ChatMessage repliedMsg = repliedRow == null ? null : repliedRow.msg;
+                    if (repliedMsg != null) {
+                        card.table(replyTable -> {
+                            replyTable.center().left();
+                            replyTable.image(Icon.rightSmall).size(16 * scale).padRight(4 * scale)
+                                    .color(Color.gray);
+
+                            Label replyContent = new Label(repliedMsg.content.replace('\n', ' '));
+                            replyContent.setFontScale(scale);
+                            replyContent.setColor(Color.gray);
+                            replyContent.setEllipsis(true);
+                            replyTable.add(replyContent).minWidth(0).maxWidth(200 * scale);
+                        }).growX().padTop(isSameUser ? 2 * scale : 0).padBottom(0).row();
                     }
+                }
 
-                    card.clicked(() -> {
-                        if (expandedMessageId != null && expandedMessageId.equals(msg.id)) {
-                            expandedMessageId = null;
-                        } else {
-                            expandedMessageId = msg.id;
-                        }
-                        rebuild();
-                    });
-                }));
+                card.table(c -> renderContent(c, msg.content, scale)).top().left().growX()
+                        .padTop(isSameUser && (msg.replyTo == null || msg.replyTo.isEmpty()) ? 2 * scale : 0);
+                if (translatedMessages.containsKey(msg.id)) {
+                    card.row();
+                    Label translated = new Label(translatedMessages.get(msg.id));
+                    translated.setColor(Color.gray);
+                    translated.setFontScale(scale * 0.9f);
+                    translated.setWrap(true);
+                    card.add(translated).left().growX().padTop(4 * scale);
+                }
 
-                Table overlayTable = new Table(overlay -> {
-                    if (expandedMessageId != null && expandedMessageId.equals(msg.id)) {
-                        overlay.top().left();
-                        overlay.table(actions -> {
-                            actions.left().defaults().height(36 * scale).minWidth(160 * scale).padRight(8 * scale);
+                card.clicked(() -> {
+                    setExpanded(expandedMessageId != null && expandedMessageId.equals(msg.id) ? null : msg.id);
+                });
+            }));
+
+            Table overlayTable = new Table(overlay -> {
+                if (expandedMessageId != null && expandedMessageId.equals(msg.id)) {
+                    overlay.top().left();
+                    overlay.table(actions -> {
+                        actions.left().defaults().height(36 * scale).minWidth(160 * scale).padRight(8 * scale);
+
+                        TextButton copyBtn = new TextButton("@copy", Styles.defaultt);
+                        copyBtn.clicked(() -> {
+                            try {
+                                Core.app.setClipboardText(msg.content);
+                                Vars.ui.showInfoFade("@copied");
+                                setExpanded(null);
+                            } catch (Exception e) {
+                                Vars.ui.showInfoFade(e.getMessage());
+                            }
+                        });
+                        copyBtn.getLabel().setFontScale(scale * 0.8f);
+                        actions.add(copyBtn);
 
-                            TextButton copyBtn = new TextButton("@copy", Styles.defaultt);
-                            copyBtn.clicked(() -> {
-                                try {
-                                    Core.app.setClipboardText(msg.content);
-                                    Vars.ui.showInfoFade("@copied");
-                                    expandedMessageId = null;
-                                    rebuild();
-                                } catch (Exception e) {
-                                    Vars.ui.showInfoFade(e.getMessage());
+                        TextButton replyBtn = new TextButton("@chat.reply", Styles.defaultt);
+                        replyBtn.clicked(() -> {
+                            chatInput.setReplyingTo(msg.id);
+                            setExpanded(null);
+                        });
+                        replyBtn.getLabel().setFontScale(scale * 0.8f);
+                        actions.add(replyBtn);
+
+                        if (isTranslationEnabled) {
+                            TextButton translateBtn = new TextButton(
+                                    translatingMessageIds.contains(msg.id)
+                                            ? Core.bundle.get("chat-translation.translating")
+                                            : Core.bundle.get("chat-translation.translate"),
+                                    Styles.defaultt);
+                            translateBtn.setDisabled(translatingMessageIds.contains(msg.id));
+                            translateBtn.clicked(() -> {
+                                if (translatingMessageIds.contains(msg.id)) {
+                                    return;
                                 }
-                            });
-                            copyBtn.getLabel().setFontScale(scale * 0.8f);
-                            actions.add(copyBtn);
-
-                            TextButton replyBtn = new TextButton("@chat.reply", Styles.defaultt);
-                            replyBtn.clicked(() -> {
-                                chatInput.setReplyingTo(msg.id);
-                                expandedMessageId = null;
-                                rebuild();
-                            });
-                            replyBtn.getLabel().setFontScale(scale * 0.8f);
-                            actions.add(replyBtn);
-
-                            if (isTranslationEnabled) {
-                                TextButton translateBtn = new TextButton(
-                                        translatingMessageIds.contains(msg.id)
-                                                ? Core.bundle.get("chat-translation.translating")
-                                                : Core.bundle.get("chat-translation.translate"),
-                                        Styles.defaultt);
-                                translateBtn.setDisabled(translatingMessageIds.contains(msg.id));
-                                translateBtn.clicked(() -> {
-                                    if (translatingMessageIds.contains(msg.id)) {
-                                        return;
-                                    }
-
-                                    translatingMessageIds.add(msg.id);
-                                    rebuild();
-
-                                    translationFeature.translateContent(msg.content)
-                                            .thenAccept(translated -> Core.app.post(() -> {
-                                                translatedMessages.put(msg.id, translated);
+
+                                translatingMessageIds.add(msg.id);
+                                refreshRow(msg.id);
+
+                                translationFeature.translateContent(msg.content)
+                                        .thenAccept(translated -> Core.app.post(() -> {
+                                            translatedMessages.put(msg.id, translated);
+                                            translatingMessageIds.remove(msg.id);
+                                            setExpanded(null);
+                                            refreshRow(msg.id);
+                                        }))
+                                        .exceptionally(e -> {
+                                            Core.app.post(() -> {
+                                                translatedMessages.remove(msg.id);
                                                 translatingMessageIds.remove(msg.id);
-                                                expandedMessageId = null;
-                                                rebuild();
-                                            }))
-                                            .exceptionally(e -> {
-                                                Core.app.post(() -> {
-                                                    translatedMessages.remove(msg.id);
-                                                    translatingMessageIds.remove(msg.id);
-                                                    Vars.ui.showInfoFade(e.getMessage());
-                                                    rebuild();
-                                                });
-                                                return null;
+                                                Vars.ui.showInfoFade(e.getMessage());
+                                                refreshRow(msg.id);
                                             });
-                                });
-                                translateBtn.getLabel().setFontScale(scale * 0.8f);
-                                actions.add(translateBtn);
-                            }
-                        }).left().padTop(4 * scale);
-                    }
-                });
-                cardStack.add(overlayTable);
-                overlayTable.toFront();
+                                            return null;
+                                        });
+                            });
+                            translateBtn.getLabel().setFontScale(scale * 0.8f);
+                            actions.add(translateBtn);
+                        }
+                    }).left().padTop(4 * scale);
+                }
+            });
+            cardStack.add(overlayTable);
+            overlayTable.toFront();
 
-                cardContainer.add(cardStack).growX();
-            }).growX().padLeft(8 * scale).padRight(8 * scale).padTop(isSameUser ? 0 : 8 * scale)
-                    .padBottom(isNextSameUser ? 0 : 8 * scale).top();
+            cardContainer.add(cardStack).growX();
+        }).growX().padLeft(8 * scale).padRight(8 * scale).padTop(isSameUser ? 0 : 8 * scale)
+                .padBottom(isNextSameUser ? 0 : 8 * scale).top();
 
-            messageTable.add(entry).growX().padBottom(isNextSameUser ? 0 : 4 * scale).row();
-        }
+        return isNextSameUser ? 0 : 4 * scale;
     }
 
     private void renderContent(Table c, String content, float scale) {
@@ -383,7 +683,7 @@ public class MessageList extends Table {
             String schematicBase64 = content.substring(schematicBasePosition, endPosition);
 
             try {
-                var schematic = Schematics.readBase64(schematicBase64);
+                var schematic = Utils.readSchematic(schematicBase64);
                 c.row();
                 renderSchematic(c, schematic);
                 c.row();
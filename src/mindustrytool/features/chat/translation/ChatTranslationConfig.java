@@ -6,11 +6,14 @@ public class ChatTranslationConfig {
     private static final String PREFIX = "mindustrytool.chat-translation.";
     public static final String SHOW_ORIGINAL = PREFIX + "show.original";
     public static final String PROVIDER = PREFIX + "provider";
+    public static final String CACHE_PERSIST = PREFIX + "cache.persist";
 
     public static final String GEMINI_API_KEY = "mindustrytool.chat-translation.gemini.api-key";
     public static final String GEMINI_MODEL = "mindustrytool.chat-translation.gemini.model";
     public static final String GEMINI_TIMEOUT = "mindustrytool.chat-translation.gemini.timeout";
     public static final String GEMINI_MAX_HISTORY = "mindustrytool.chat-translation.gemini.max-history";
+    public static final String GEMINI_MAX_IN_FLIGHT = "mindustrytool.chat-translation.gemini.max-in-flight";
+    public static final String GEMINI_REQUESTS_PER_MINUTE = "mindustrytool.chat-translation.gemini.requests-per-minute";
 
     public static final String DEEPL_API_KEY = "mindustrytool.chat-translation.deepl.api-key";
     public static final String DEEPL_TIMEOUT = "mindustrytool.chat-translation.deepl.timeout";
@@ -10,12 +10,14 @@ import mindustry.core.NetClient;
 import mindustry.gen.SendMessageCallPacket;
 import mindustry.gen.SendMessageCallPacket2;
 import mindustrytool.Main;
+import mindustrytool.Utils;
 import mindustrytool.features.Feature;
 import mindustrytool.features.FeatureMetadata;
 import arc.struct.Seq;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChatTranslationFeature implements Feature {
     private final Seq<TranslationProvider> providers = new Seq<>();
@@ -23,6 +25,9 @@ public class ChatTranslationFeature implements Feature {
     private String lastError = null;
     private TranslationProvider currentProvider = defaultTranslationProvider;
 
+    private final TranslationBatcher batcher = new TranslationBatcher();
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
     @Override
     public FeatureMetadata getMetadata() {
         return FeatureMetadata.builder()
@@ -70,6 +75,8 @@ public class ChatTranslationFeature implements Feature {
 
         loadProvider();
 
+        TranslationCache.getInstance().load();
+        Utils.onAppExit(TranslationCache.getInstance()::save);
     }
 
     public void handleMessage(String message, Cons<String> cons) {
@@ -99,13 +106,41 @@ public class ChatTranslationFeature implements Feature {
             throw new IllegalArgumentException("ChatTranslationFeature is not enabled");
         }
 
-        return currentProvider.translate(Strings.stripColors(message))
-                .whenComplete((translated, error) -> {
-                    if (error != null) {
-                        Throwable cause = error.getCause() != null ? error.getCause() : error;
-                        lastError = cause.getMessage();
-                    }
-                });
+        TranslationProvider provider = currentProvider;
+        String text = Strings.stripColors(message);
+        String key = TranslationCache.key(provider.getId(), Core.bundle.getLocale().toString(), text);
+
+        String cached = TranslationCache.getInstance().get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // Repeated messages arriving together share one request
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        batcher.submit(provider, text).whenComplete((translated, error) -> {
+            inFlight.remove(key);
+
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                lastError = cause.getMessage();
+                future.completeExceptionally(error);
+                return;
+            }
+
+            if (translated != null) {
+                TranslationCache.getInstance().put(key, translated);
+            }
+
+            future.complete(translated);
+        });
+
+        return future;
     }
 
     private void loadProvider() {
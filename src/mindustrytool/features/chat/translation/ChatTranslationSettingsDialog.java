@@ -58,6 +58,9 @@ public class ChatTranslationSettingsDialog extends BaseDialog {
 
         root.add(providerList).growX().row();
 
+        root.check("@chat-translation.settings.persist-cache", TranslationCache.isPersistent(),
+                TranslationCache::setPersistent).left().row();
+
         root.image().height(4).color(Color.gray).fillX().pad(10).row();
 
         Label resultLabel = new Label("");
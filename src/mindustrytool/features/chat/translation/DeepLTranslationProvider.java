@@ -6,6 +6,8 @@ import arc.util.Http.HttpStatusException;
 import arc.util.serialization.Jval;
 import arc.scene.ui.layout.Table;
 import arc.scene.ui.Slider;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public class DeepLTranslationProvider implements TranslationProvider {
@@ -30,7 +32,12 @@ public class DeepLTranslationProvider implements TranslationProvider {
 
     @Override
     public CompletableFuture<String> translate(String message) {
-        CompletableFuture<String> future = new CompletableFuture<>();
+        return translateBatch(List.of(message)).thenApply(results -> results.get(0));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> translateBatch(List<String> messages) {
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
 
         String apiKey = getApiKey();
 
@@ -46,7 +53,9 @@ public class DeepLTranslationProvider implements TranslationProvider {
         try {
             Jval body = Jval.newObject();
             Jval textArray = Jval.newArray();
-            textArray.add(message);
+            for (String message : messages) {
+                textArray.add(message);
+            }
             body.put("text", textArray);
             body.put("target_lang", targetLang);
 
@@ -69,13 +78,17 @@ public class DeepLTranslationProvider implements TranslationProvider {
                         String jsonString = res.getResultAsString();
                         try {
                             Jval json = Jval.read(jsonString);
-                            if (json.has("translations") && !json.get("translations").asArray().isEmpty()) {
-                                String result = json.get("translations").asArray().get(0)
-                                        .getString("text", message).trim();
-                                future.complete(result);
-                            } else {
-                                future.complete(message);
+                            List<String> results = new ArrayList<>(messages);
+
+                            // Translations come back in request order
+                            if (json.has("translations")) {
+                                var translations = json.get("translations").asArray();
+                                for (int i = 0; i < Math.min(translations.size, results.size()); i++) {
+                                    results.set(i, translations.get(i).getString("text", messages.get(i)).trim());
+                                }
                             }
+
+                            future.complete(results);
                         } catch (Exception e) {
                             future.completeExceptionally(
                                     new RuntimeException(Core.bundle.get("chat-translation.deepl.parse-error"), e));
@@ -7,12 +7,21 @@ import arc.util.Http.HttpStatus;
 import arc.util.Http.HttpStatusException;
 import arc.util.serialization.Jval;
 import arc.scene.ui.layout.Table;
-import arc.struct.Seq;
 import arc.scene.ui.ButtonGroup;
 import arc.scene.ui.CheckBox;
 import arc.scene.ui.Slider;
+import arc.util.Timer;
 import mindustry.ui.Styles;
+import mindustrytool.utils.TokenBucket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class GeminiTranslationProvider implements TranslationProvider {
     private static final String API_URL_BASE = "https://generativelanguage.googleapis.com/v1beta/models/";
@@ -26,7 +35,66 @@ public class GeminiTranslationProvider implements TranslationProvider {
             "gemini-2.0-flash-lite",
     };
 
-    private Seq<String> lastMessages = new Seq<>();
+    // Upper bound of the max history slider
+    private static final int HISTORY_CAPACITY = 10;
+    // Requests waiting for a slot, the oldest is dropped when a new one
+    // does not fit, and a request that waited this long is dropped as stale
+    private static final int MAX_WAITING = 16;
+    private static final long MAX_WAIT_MS = 30_000;
+
+    private final AtomicReferenceArray<String> history = new AtomicReferenceArray<>(HISTORY_CAPACITY);
+    private final AtomicLong historyCursor = new AtomicLong();
+
+    // The quota is per minute, a burst of chat may use all of it at once
+    private final TokenBucket rateLimiter = new TokenBucket(getRequestsPerMinute(), getRequestsPerMinute());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ArrayBlockingQueue<Request> waiting = new ArrayBlockingQueue<>(MAX_WAITING);
+
+    private volatile PromptTemplate template;
+
+    private static class Request {
+        final String prompt;
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final long queuedAt = System.currentTimeMillis();
+
+        Request(String prompt) {
+            this.prompt = prompt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - queuedAt > MAX_WAIT_MS;
+        }
+    }
+
+    /** Prompt parts that only change with the target locale. */
+    private static class PromptTemplate {
+        final Locale locale;
+        final String single;
+        final String batch;
+
+        PromptTemplate(Locale locale) {
+            String language = locale.getDisplayName();
+
+            this.locale = locale;
+            this.single = "Translate the following Mindustry game chat message to " + language
+                    + ". If it is already " + language + ", just return it as is.";
+            this.batch = "Translate each of the following Mindustry game chat messages to " + language
+                    + ". Messages already in " + language + " are returned as is."
+                    + " Reply with only a JSON array of strings in the same order.";
+        }
+    }
+
+    private PromptTemplate template() {
+        Locale locale = Core.bundle.getLocale();
+        PromptTemplate current = template;
+
+        if (current == null || !current.locale.equals(locale)) {
+            current = new PromptTemplate(locale);
+            template = current;
+        }
+
+        return current;
+    }
 
     private int maxHistory() {
         return Core.settings.getInt(ChatTranslationConfig.GEMINI_MAX_HISTORY, 0);
@@ -52,6 +120,24 @@ public class GeminiTranslationProvider implements TranslationProvider {
         Core.settings.put(ChatTranslationConfig.GEMINI_MODEL, model);
     }
 
+    private int getMaxInFlight() {
+        return Core.settings.getInt(ChatTranslationConfig.GEMINI_MAX_IN_FLIGHT, 2);
+    }
+
+    private void setMaxInFlight(int maxInFlight) {
+        Core.settings.put(ChatTranslationConfig.GEMINI_MAX_IN_FLIGHT, maxInFlight);
+        drainWaiting();
+    }
+
+    private int getRequestsPerMinute() {
+        return Core.settings.getInt(ChatTranslationConfig.GEMINI_REQUESTS_PER_MINUTE, 10);
+    }
+
+    private void setRequestsPerMinute(int requestsPerMinute) {
+        Core.settings.put(ChatTranslationConfig.GEMINI_REQUESTS_PER_MINUTE, requestsPerMinute);
+        rateLimiter.setRate(requestsPerMinute, requestsPerMinute);
+    }
+
     private int getTimeout() {
         return Core.settings.getInt(ChatTranslationConfig.GEMINI_TIMEOUT, 10);
     }
@@ -61,46 +147,202 @@ public class GeminiTranslationProvider implements TranslationProvider {
     }
 
     @Override
-    public synchronized CompletableFuture<String> translate(String message) {
-        lastMessages.add(message);
-        if (lastMessages.size > maxHistory()) {
-            lastMessages.remove(0);
+    public CompletableFuture<String> translate(String message) {
+        long end = record(message);
+
+        StringBuilder prompt = new StringBuilder(template().single);
+        appendHistory(prompt, end);
+        prompt.append(" Message to translate: ").append(message);
+
+        return generate(prompt.toString()).thenApply(result -> result == null ? message : result.trim());
+    }
+
+    @Override
+    public CompletableFuture<List<String>> translateBatch(List<String> messages) {
+        Jval input = Jval.newArray();
+        long end = 0;
+
+        for (String message : messages) {
+            input.add(message);
+            end = record(message);
         }
 
-        CompletableFuture<String> future = new CompletableFuture<>();
+        StringBuilder prompt = new StringBuilder(template().batch);
+        appendHistory(prompt, end);
+        prompt.append(" Messages: ").append(input.toString());
+
+        return generateBatch(prompt.toString(), messages.size(), true);
+    }
+
+    // The messages are already in the history, a retry sends the same prompt
+    // again instead of recording them twice
+    private CompletableFuture<List<String>> generateBatch(String prompt, int expected, boolean retry) {
+        return generate(prompt).thenCompose(result -> {
+            List<String> translated = parseArray(result, expected);
+
+            if (translated != null) {
+                return CompletableFuture.completedFuture(translated);
+            }
+
+            // The model did not keep the format, ask once more
+            if (retry) {
+                return generateBatch(prompt, expected, false);
+            }
+
+            return CompletableFuture.failedFuture(
+                    new RuntimeException(Core.bundle.get("chat-translation.gemini.parse-error")));
+        });
+    }
+
+    /** @return the history position after the message */
+    private long record(String message) {
+        long end = historyCursor.incrementAndGet();
+        history.set((int) ((end - 1) % HISTORY_CAPACITY), message);
+        return end;
+    }
+
+    private void appendHistory(StringBuilder prompt, long end) {
+        // Newest first, a slot overwritten by a concurrent call just shows a
+        // slightly newer message
+        int count = (int) Math.min(Math.min(maxHistory(), HISTORY_CAPACITY), end);
+        if (count <= 0) {
+            return;
+        }
+
+        prompt.append(" Previous conversation history:\n");
+
+        for (int i = 0; i < count; i++) {
+            String previous = history.get((int) ((end - 1 - i) % HISTORY_CAPACITY));
+            if (previous != null) {
+                prompt.append(previous).append('\n');
+            }
+        }
+    }
+
+    private List<String> parseArray(String text, int expected) {
+        if (text == null) {
+            return null;
+        }
+
+        int start = text.indexOf('[');
+        int end = text.lastIndexOf(']');
+
+        if (start == -1 || end <= start) {
+            return null;
+        }
+
+        try {
+            var array = Jval.read(text.substring(start, end + 1)).asArray();
+
+            if (array.size != expected) {
+                return null;
+            }
+
+            List<String> results = new ArrayList<>(expected);
+            for (Jval value : array) {
+                results.add(value.asString().trim());
+            }
+
+            return results;
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
+    /**
+     * Queues a prompt behind the in-flight limit and the rate limiter, completes
+     * with the text of the first candidate, or null. Fails when the queue
+     * drops it as the oldest or as stale.
+     */
+    private CompletableFuture<String> generate(String prompt) {
         if (getApiKey().isEmpty()) {
-            future.completeExceptionally(
+            return CompletableFuture.failedFuture(
                     new IllegalArgumentException(Core.bundle.get("chat-translation.gemini.no-api-key")));
+        }
 
-            return future;
+        Request request = new Request(prompt);
+
+        // The queue is in arrival order, stale requests sit at its head
+        Request head;
+        while ((head = waiting.peek()) != null && head.isExpired() && waiting.remove(head)) {
+            head.future.completeExceptionally(
+                    new RuntimeException(Core.bundle.get("chat-translation.gemini.expired")));
         }
 
-        try {
-            Jval body = Jval.newObject();
-            Jval contents = Jval.newArray();
-            Jval content = Jval.newObject();
-            Jval parts = Jval.newArray();
-            Jval part = Jval.newObject();
+        while (!waiting.offer(request)) {
+            Request oldest = waiting.poll();
 
-            StringBuilder history = new StringBuilder();
-            Seq<String> historySnapshot = new Seq<>(lastMessages);
+            if (oldest != null) {
+                oldest.future.completeExceptionally(
+                        new RuntimeException(Core.bundle.get("chat-translation.gemini.queue-full")));
+            }
+        }
+
+        drainWaiting();
+
+        return request.future;
+    }
+
+    private void drainWaiting() {
+        while (!waiting.isEmpty()) {
+            int current = inFlight.get();
 
-            for (int i = 0; i < Math.min(maxHistory(), historySnapshot.size); i++) {
-                history.append(historySnapshot.get(historySnapshot.size - i - 1)).append("\n");
+            if (current >= getMaxInFlight()) {
+                return;
             }
 
-            if (history.length() > 0) {
-                history.insert(0, "Previous conversation history:\n");
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
             }
 
-            String prompt = "Translate the following Mindustry game chat message to "
-                    + Core.bundle.getLocale().getDisplayName()
-                    + ". If it is already" + Core.bundle.getLocale().getDisplayName()
-                    + ", just return it as is." +
-                    history.toString()
-                    + " Message to translate: "
-                    + message;
+            Request next = waiting.poll();
+
+            if (next == null || !start(next)) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /** @return whether the request was sent and holds its in-flight slot until done */
+    private boolean start(Request request) {
+        // Cancelled or already dropped by the caller
+        if (request.future.isDone()) {
+            return false;
+        }
+
+        if (request.isExpired()) {
+            request.future.completeExceptionally(
+                    new RuntimeException(Core.bundle.get("chat-translation.gemini.expired")));
+            return false;
+        }
+
+        request.future.whenComplete((result, error) -> {
+            inFlight.decrementAndGet();
+            drainWaiting();
+        });
+
+        long delay = rateLimiter.reserve();
+
+        if (delay > 0) {
+            Timer.schedule(() -> {
+                if (!request.future.isDone()) {
+                    send(request.prompt, request.future);
+                }
+            }, delay / 1000f);
+        } else {
+            send(request.prompt, request.future);
+        }
+
+        return true;
+    }
+
+    private void send(String prompt, CompletableFuture<String> future) {
+        try {
+            Jval body = Jval.newObject();
+            Jval contents = Jval.newArray();
+            Jval content = Jval.newObject();
+            Jval parts = Jval.newArray();
+            Jval part = Jval.newObject();
 
             part.put("text", prompt);
             parts.add(part);
@@ -116,6 +358,7 @@ public class GeminiTranslationProvider implements TranslationProvider {
                         if (e instanceof HttpStatusException httpStatusException) {
                             if (httpStatusException.status.code == 429
                                     || httpStatusException.status == HttpStatus.UNKNOWN_STATUS) {
+                                rateLimiter.drain();
                                 future.completeExceptionally(new RuntimeException(
                                         Core.bundle.get("chat-translation.gemini.rate-limit")));
                             } else if (httpStatusException.status.code == 404) {
@@ -154,10 +397,10 @@ public class GeminiTranslationProvider implements TranslationProvider {
                                 String result = json.get("candidates").asArray().get(0).asObject()
                                         .get("content").asObject()
                                         .get("parts").asArray().get(0)
-                                        .getString("text", message).trim();
+                                        .getString("text", null);
                                 future.complete(result);
                             } else {
-                                future.complete(message);
+                                future.complete(null);
                             }
                         } catch (Exception e) {
                             future.completeExceptionally(
@@ -167,8 +410,6 @@ public class GeminiTranslationProvider implements TranslationProvider {
         } catch (Exception e) {
             future.completeExceptionally(new RuntimeException("Gemini translation error", e));
         }
-
-        return future;
     }
 
     @Override
@@ -233,6 +474,35 @@ public class GeminiTranslationProvider implements TranslationProvider {
 
         table.add(historySlider).growX().row();
 
+        table.add(Core.bundle.get("chat-translation.gemini.max-in-flight") + ": " + getMaxInFlight()).left()
+                .padTop(10)
+                .update(l -> l
+                        .setText(Core.bundle.get("chat-translation.gemini.max-in-flight") + ": " + getMaxInFlight()))
+                .row();
+
+        Slider inFlightSlider = new Slider(1, 8, 1, false);
+        inFlightSlider.setValue(getMaxInFlight());
+        inFlightSlider.moved(val -> {
+            setMaxInFlight((int) val);
+        });
+
+        table.add(inFlightSlider).growX().row();
+
+        table.add(Core.bundle.get("chat-translation.gemini.requests-per-minute") + ": " + getRequestsPerMinute())
+                .left()
+                .padTop(10)
+                .update(l -> l.setText(Core.bundle.get("chat-translation.gemini.requests-per-minute") + ": "
+                        + getRequestsPerMinute()))
+                .row();
+
+        Slider rateSlider = new Slider(1, 60, 1, false);
+        rateSlider.setValue(getRequestsPerMinute());
+        rateSlider.moved(val -> {
+            setRequestsPerMinute((int) val);
+        });
+
+        table.add(rateSlider).growX().row();
+
         return table;
     }
 
@@ -0,0 +1,111 @@
+package mindustrytool.features.chat.translation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import arc.util.Timer;
+
+/**
+ * Groups translation requests that arrive within {@link #WINDOW_MS} into one
+ * provider call per provider, then completes each waiting future with its own
+ * result.
+ */
+public class TranslationBatcher {
+    public static final long WINDOW_MS = 100;
+    public static final int MAX_BATCH_SIZE = 16;
+
+    private static class Pending {
+        final String text;
+        final CompletableFuture<String> future = new CompletableFuture<>();
+
+        Pending(String text) {
+            this.text = text;
+        }
+    }
+
+    private final LinkedHashMap<TranslationProvider, List<Pending>> pending = new LinkedHashMap<>();
+    private boolean scheduled = false;
+
+    public CompletableFuture<String> submit(TranslationProvider provider, String text) {
+        Pending request = new Pending(text);
+        List<Pending> full = null;
+
+        synchronized (this) {
+            List<Pending> batch = pending.computeIfAbsent(provider, key -> new ArrayList<>());
+            batch.add(request);
+
+            if (batch.size() >= MAX_BATCH_SIZE) {
+                pending.remove(provider);
+                full = batch;
+            } else if (!scheduled) {
+                scheduled = true;
+                Timer.schedule(this::flush, WINDOW_MS / 1000f);
+            }
+        }
+
+        if (full != null) {
+            send(provider, full);
+        }
+
+        return request.future;
+    }
+
+    private void flush() {
+        LinkedHashMap<TranslationProvider, List<Pending>> batches;
+
+        synchronized (this) {
+            scheduled = false;
+            batches = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+
+        batches.forEach(this::send);
+    }
+
+    private void send(TranslationProvider provider, List<Pending> batch) {
+        if (batch.size() == 1) {
+            Pending request = batch.get(0);
+            forward(provider.translate(request.text), request.future);
+            return;
+        }
+
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Pending request : batch) {
+            texts.add(request.text);
+        }
+
+        CompletableFuture<List<String>> results;
+
+        try {
+            results = provider.translateBatch(texts);
+        } catch (Throwable e) {
+            results = CompletableFuture.failedFuture(e);
+        }
+
+        results.whenComplete((translated, error) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<String> future = batch.get(i).future;
+
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else if (translated == null || i >= translated.size()) {
+                    future.completeExceptionally(new IllegalStateException("Missing translation in batch result"));
+                } else {
+                    future.complete(translated.get(i));
+                }
+            }
+        });
+    }
+
+    private static void forward(CompletableFuture<String> source, CompletableFuture<String> target) {
+        source.whenComplete((value, error) -> {
+            if (error != null) {
+                target.completeExceptionally(error);
+            } else {
+                target.complete(value);
+            }
+        });
+    }
+}
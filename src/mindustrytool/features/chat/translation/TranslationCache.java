@@ -0,0 +1,128 @@
+package mindustrytool.features.chat.translation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import arc.Core;
+import arc.files.Fi;
+import arc.util.Log;
+import lombok.Data;
+import mindustry.Vars;
+import mindustrytool.Utils;
+
+/**
+ * LRU cache of translated messages keyed by provider, target locale and the
+ * color-stripped text. Can be persisted between sessions.
+ */
+public class TranslationCache {
+    private static final int MAX_ENTRIES = 512;
+
+    private static final TranslationCache instance = new TranslationCache();
+
+    private final Fi file = Vars.dataDirectory.child("mindustry-tool-translations.json");
+
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private long hits = 0;
+    private long misses = 0;
+
+    @Data
+    private static class Snapshot {
+        private LinkedHashMap<String, String> entries = new LinkedHashMap<>();
+    }
+
+    public static TranslationCache getInstance() {
+        return instance;
+    }
+
+    public static String key(String providerId, String locale, String text) {
+        return providerId + '\u0000' + locale + '\u0000' + text;
+    }
+
+    public synchronized String get(String key) {
+        String value = entries.get(key);
+
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+
+        return value;
+    }
+
+    public synchronized void put(String key, String translated) {
+        entries.put(key, translated);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public static boolean isPersistent() {
+        return Core.settings.getBool(ChatTranslationConfig.CACHE_PERSIST, false);
+    }
+
+    public static void setPersistent(boolean persistent) {
+        Core.settings.put(ChatTranslationConfig.CACHE_PERSIST, persistent);
+    }
+
+    public void load() {
+        if (!isPersistent() || !file.exists()) {
+            return;
+        }
+
+        Vars.mainExecutor.submit(() -> {
+            try {
+                Snapshot snapshot = Utils.fromJson(Snapshot.class, file.readString());
+
+                synchronized (this) {
+                    // Entries translated before loading finished are newer
+                    LinkedHashMap<String, String> current = new LinkedHashMap<>(entries);
+                    entries.clear();
+                    entries.putAll(snapshot.entries);
+                    entries.putAll(current);
+                }
+            } catch (Exception e) {
+                Log.err("Failed to load translation cache", e);
+                file.delete();
+            }
+        });
+    }
+
+    public void save() {
+        if (!isPersistent()) {
+            file.delete();
+            return;
+        }
+
+        Snapshot snapshot = new Snapshot();
+
+        synchronized (this) {
+            snapshot.entries.putAll(entries);
+        }
+
+        try {
+            file.writeString(Utils.toJson(snapshot));
+        } catch (Exception e) {
+            Log.err("Failed to save translation cache", e);
+        }
+    }
+}
@@ -2,11 +2,32 @@ package mindustrytool.features.chat.translation;
 
 import arc.scene.ui.layout.Table;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface TranslationProvider {
     CompletableFuture<String> translate(String message);
 
+    /**
+     * Translates several messages, results are in the same order. Providers
+     * that can send them in one request should override this.
+     */
+    default CompletableFuture<List<String>> translateBatch(List<String> messages) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            futures.add(translate(message));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<String> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<String> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
     Table settings();
 
     default void init() {
@@ -1,18 +1,24 @@
 package mindustrytool.features.display.healthbar;
 
 import arc.Core;
+import arc.math.Mathf;
+import arc.scene.ui.layout.Scl;
+
+import static mindustry.Vars.renderer;
 
 public class HealthBarConfig {
     public static float zoomThreshold;
     public static float opacity;
     public static float scale;
     public static float width;
+    public static float lodZoom;
 
     public static void load() {
         zoomThreshold = Core.settings.getFloat("mindustrytool.health-bar.zoom-threshold", 0.5f);
         opacity = Core.settings.getFloat("mindustrytool.health-bar.opacity", 1f);
         scale = Core.settings.getFloat("mindustrytool.health-bar.scale", 1f);
         width = Core.settings.getFloat("mindustrytool.health-bar.width", 1f);
+        lodZoom = Core.settings.getFloat("mindustrytool.health-bar.lod-zoom", defaultLodZoom());
     }
 
     public static void save() {
@@ -20,6 +26,7 @@ public class HealthBarConfig {
         Core.settings.put("mindustrytool.health-bar.opacity", opacity);
         Core.settings.put("mindustrytool.health-bar.scale", scale);
         Core.settings.put("mindustrytool.health-bar.width", width);
+        Core.settings.put("mindustrytool.health-bar.lod-zoom", lodZoom);
     }
 
     public static void reset() {
@@ -27,6 +34,17 @@ public class HealthBarConfig {
         opacity = 1f;
         scale = 1f;
         width = 1f;
+        lodZoom = defaultLodZoom();
         save();
     }
+
+    // The renderer scale never goes below minScale(), a quarter of the way
+    // into its range is zoomed out enough to have many bars on screen
+    public static float defaultLodZoom() {
+        if (renderer == null) {
+            return Scl.scl(2.6f);
+        }
+
+        return Mathf.lerp(renderer.minScale(), renderer.maxScale(), 0.25f);
+    }
 }
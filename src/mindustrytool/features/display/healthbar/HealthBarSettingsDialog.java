@@ -6,6 +6,7 @@ import arc.scene.event.Touchable;
 import arc.scene.ui.Label;
 import arc.scene.ui.Slider;
 import arc.scene.ui.layout.Table;
+import mindustry.Vars;
 import mindustry.gen.Icon;
 import mindustry.ui.Styles;
 import mindustry.ui.dialogs.BaseDialog;
@@ -118,5 +119,29 @@ public class HealthBarSettingsDialog extends BaseDialog {
         });
 
         container.stack(widthSlider, widthContent).width(width).left().padTop(4f).row();
+
+        Slider lodSlider = new Slider(0f, Vars.renderer.maxScale(), 0.1f, false);
+        lodSlider.setValue(HealthBarConfig.lodZoom);
+
+        Label lodValue = new Label(
+                HealthBarConfig.lodZoom <= 0.01f ? "Off" : String.format("%.1fx", HealthBarConfig.lodZoom),
+                Styles.outlineLabel);
+        lodValue.setColor(HealthBarConfig.lodZoom <= 0.01f ? Color.gray : Color.lightGray);
+
+        Table lodContent = new Table();
+        lodContent.touchable = Touchable.disabled;
+        lodContent.margin(3f, 33f, 3f, 33f);
+        lodContent.add("@health-bar.lod-zoom", Styles.outlineLabel).left().growX();
+        lodContent.add(lodValue).padLeft(10f).right();
+
+        lodSlider.changed(() -> {
+            HealthBarConfig.lodZoom = lodSlider.getValue();
+            lodValue.setText(HealthBarConfig.lodZoom <= 0.01f ? "@off"
+                    : String.format("%.1fx", HealthBarConfig.lodZoom));
+            lodValue.setColor(HealthBarConfig.lodZoom <= 0.01f ? Color.gray : Color.lightGray);
+            HealthBarConfig.save();
+        });
+
+        container.stack(lodSlider, lodContent).width(width).left().padTop(4f).row();
     }
 }
@@ -2,28 +2,46 @@ package mindustrytool.features.display.healthbar;
 
 import arc.Core;
 import arc.Events;
+import arc.func.Cons;
 import arc.graphics.Color;
 import arc.graphics.g2d.Draw;
 import arc.graphics.g2d.TextureRegion;
 import arc.scene.ui.Dialog;
 import mindustry.Vars;
 import mindustry.game.EventType.Trigger;
+import mindustry.game.Team;
 import mindustry.gen.Groups;
 import mindustry.gen.Unit;
-import mindustry.graphics.Pal;
 import mindustry.ui.dialogs.BaseDialog;
 import mindustrytool.Utils;
 import mindustrytool.features.Feature;
 import mindustrytool.features.FeatureMetadata;
 
+import java.util.Arrays;
 import java.util.Optional;
 import static mindustry.Vars.*;
 
 public class HealthBarVisualizer implements Feature {
 
+    // x, y, width, health fraction, shield bars, team id
+    private static final int STRIDE = 6;
+    // Below the LOD zoom bars narrower than this on screen are skipped
+    private static final float LOD_MIN_PIXELS = 4f;
+
     private static TextureRegion barRegion;
     private BaseDialog dialog;
 
+    private final Cons<Unit> collector = this::collect;
+    private float[] bars = new float[STRIDE * 256];
+    private int barCount;
+    private boolean lod;
+    private float minWidth;
+    private float barHeight;
+
+    private final Color background = new Color();
+    private final Color[] teamColors = new Color[Team.all.length];
+    private float colorOpacity = -1f;
+
     @Override
     public FeatureMetadata getMetadata() {
         return FeatureMetadata.builder()
@@ -68,19 +86,33 @@ public class HealthBarVisualizer implements Feature {
             }
         }
 
-        Draw.z(mindustry.graphics.Layer.shields + 5f);
+        updateColors();
+
+        lod = HealthBarConfig.lodZoom > 0.01f && zoom < HealthBarConfig.lodZoom;
+        minWidth = lod ? LOD_MIN_PIXELS / zoom : 0f;
+        barHeight = 2f * HealthBarConfig.scale;
+        barCount = 0;
 
         float cx = Core.camera.position.x;
         float cy = Core.camera.position.y;
         float cw = Core.camera.width;
         float ch = Core.camera.height;
 
-        Groups.unit.intersect(cx - cw / 2f, cy - ch / 2f, cw, ch, this::drawCheck);
+        Groups.unit.intersect(cx - cw / 2f, cy - ch / 2f, cw, ch, collector);
+
+        if (barCount == 0) {
+            return;
+        }
+
+        Draw.z(mindustry.graphics.Layer.shields + 5f);
+
+        drawBackgrounds();
+        drawFills();
 
         Draw.reset();
     }
 
-    private void drawCheck(Unit unit) {
+    private void collect(Unit unit) {
         if (!unit.isValid()) {
             return;
         }
@@ -92,21 +124,11 @@ public class HealthBarVisualizer implements Feature {
             return;
         }
 
-        drawBar(unit);
-    }
-
-    private void drawBar(Unit unit) {
-        float scale = HealthBarConfig.scale;
-        float widthScale = HealthBarConfig.width;
+        float w = unit.hitSize * 2.5f * HealthBarConfig.width;
 
-        float x = unit.x;
-        float y = unit.y + (unit.hitSize * 0.8f + 3f) * scale;
-
-        float w = unit.hitSize * 2.5f * widthScale;
-        float h = 2f * scale;
-
-        Draw.color(Color.black, 0.6f * HealthBarConfig.opacity);
-        Draw.rect(barRegion, x, y, w + 2f, h + 2f);
+        if (w < minWidth) {
+            return;
+        }
 
         float maxHealth = Math.max(unit.maxHealth, 1f);
         if (Float.isNaN(maxHealth))
@@ -114,43 +136,107 @@ public class HealthBarVisualizer implements Feature {
 
         float hpPercent = Math.max(0f, Math.min(1f, unit.health / maxHealth));
 
-        float left = x - w / 2f;
-
-        Draw.color(unit.team.color, 0.75f * HealthBarConfig.opacity);
-
-        if (hpPercent > 0) {
-            float filledW = w * hpPercent;
-            float fillCenterX = left + filledW / 2f;
-            Draw.rect(barRegion, fillCenterX, y, filledW, h);
-        }
-
+        float shieldValue = 0f;
         if (unit.shield > 0) {
-            float shieldValue = unit.shield / maxHealth;
+            shieldValue = unit.shield / maxHealth;
             if (Float.isNaN(shieldValue))
                 shieldValue = 0f;
 
             // Cap the maximum number of shield bars to prevent OOM
-            shieldValue = Math.min(shieldValue, 20f);
+            shieldValue = Math.min(shieldValue, lod ? 1f : 20f);
+        }
+
+        int offset = barCount * STRIDE;
+        if (offset + STRIDE > bars.length) {
+            bars = Arrays.copyOf(bars, bars.length * 2);
+        }
+
+        bars[offset] = unit.x;
+        bars[offset + 1] = unit.y + (unit.hitSize * 0.8f + 3f) * HealthBarConfig.scale;
+        bars[offset + 2] = w;
+        bars[offset + 3] = hpPercent;
+        bars[offset + 4] = shieldValue;
+        bars[offset + 5] = unit.team.id;
+        barCount++;
+    }
+
+    private void drawBackgrounds() {
+        float h = barHeight;
+        Draw.color(background);
 
-            Draw.color(Pal.shield, 0.5f * HealthBarConfig.opacity);
+        for (int i = 0; i < barCount; i++) {
+            int offset = i * STRIDE;
+            float x = bars[offset];
+            float y = bars[offset + 1];
+            float w = bars[offset + 2];
+            float shieldValue = bars[offset + 4];
+
+            Draw.rect(barRegion, x, y, w + 2f, h + 2f);
 
             while (shieldValue > 0) {
                 y += h * 1.8f;
-
-                Draw.color(Color.black, 0.6f * HealthBarConfig.opacity);
                 Draw.rect(barRegion, x, y, w + 2f, h + 2f);
+                shieldValue -= 1;
+            }
+        }
+    }
+
+    private void drawFills() {
+        float h = barHeight;
+        int lastTeam = -1;
+
+        for (int i = 0; i < barCount; i++) {
+            int offset = i * STRIDE;
+            float x = bars[offset];
+            float y = bars[offset + 1];
+            float w = bars[offset + 2];
+            float hpPercent = bars[offset + 3];
+            float shieldValue = bars[offset + 4];
+            int team = (int) bars[offset + 5];
+            float left = x - w / 2f;
+
+            // Units come out of the quadtree roughly grouped, so the color
+            // rarely changes between bars
+            if (team != lastTeam) {
+                Draw.color(teamColor(team));
+                lastTeam = team;
+            }
 
-                float shieldPercent = Math.min(shieldValue, 1f);
-                float shieldW = w * shieldPercent;
-                float shieldCenterX = left + shieldW / 2f;
-                Draw.color(unit.team.color, 0.75f * HealthBarConfig.opacity);
-                Draw.rect(barRegion, shieldCenterX, y, shieldW, h);
+            if (hpPercent > 0) {
+                float filledW = w * hpPercent;
+                Draw.rect(barRegion, left + filledW / 2f, y, filledW, h);
+            }
+
+            while (shieldValue > 0) {
+                y += h * 1.8f;
+
+                float shieldW = w * Math.min(shieldValue, 1f);
+                Draw.rect(barRegion, left + shieldW / 2f, y, shieldW, h);
 
                 shieldValue -= 1;
             }
         }
+    }
 
-        Draw.reset();
+    private void updateColors() {
+        if (colorOpacity == HealthBarConfig.opacity) {
+            return;
+        }
+
+        colorOpacity = HealthBarConfig.opacity;
+        background.set(Color.black).a(0.6f * colorOpacity);
+
+        for (int i = 0; i < teamColors.length; i++) {
+            if (teamColors[i] != null) {
+                teamColors[i].set(Team.get(i).color).a(0.75f * colorOpacity);
+            }
+        }
     }
 
+    private Color teamColor(int team) {
+        if (teamColors[team] == null) {
+            teamColors[team] = new Color(Team.get(team).color).a(0.75f * colorOpacity);
+        }
+        return teamColors[team];
+    }
 }
@@ -0,0 +1,154 @@
+package mindustrytool.features.display.pathfinding;
+
+import java.util.Arrays;
+
+import arc.math.geom.Geometry;
+import arc.math.geom.Point2;
+import mindustry.ai.Pathfinder;
+import mindustry.ai.Pathfinder.PathCost;
+import mindustry.game.Team;
+import mindustry.world.Tiles;
+
+import static mindustry.Vars.*;
+
+/**
+ * A copy of a finished flowfield that the trace worker owns. The pathfinder
+ * thread refreshes a field's weights in place and the update thread changes
+ * tiles, so the worker never reads either and descends this copy instead,
+ * the same way {@link Pathfinder#getTargetTile} descends the live field.
+ *
+ * Immutable once captured, a new flowfield gets a new snapshot.
+ */
+public final class FieldSnapshot {
+    // Weight of tiles the field's units cannot enter
+    private static final int BLOCKED = Integer.MAX_VALUE;
+    // Naval costs of 6000 and up mark land, which the game treats as impassable
+    private static final int NAVAL_LAND_COST = 6000;
+
+    private final int width;
+    private final int height;
+    // The field's weights as copied, to tell when it finished a newer search
+    private final int[] source;
+    // By array position, x + y * width
+    private final int[] weights;
+    // Ground units do not step from safe into damaging floors, null for other costs
+    private final boolean[] dangerous;
+
+    private FieldSnapshot(int width, int height, int[] source, int[] weights, boolean[] dangerous) {
+        this.width = width;
+        this.height = height;
+        this.source = source;
+        this.weights = weights;
+        this.dangerous = dangerous;
+    }
+
+    /**
+     * Update thread only.
+     *
+     * @return a copy of the field's last finished search, or null when it has
+     *         none yet or it was being replaced while copying
+     */
+    public static FieldSnapshot capture(Pathfinder.Flowfield field, Team team, int costType) {
+        Tiles tiles = world.tiles;
+
+        if (field == null || !field.hasCompleteWeights() || pathfinder.tiles.length != tiles.width * tiles.height
+                || field.completeWeights.length != pathfinder.tiles.length) {
+            return null;
+        }
+
+        int[] source = field.completeWeights.clone();
+
+        // A copy that no longer matches the live array caught the pathfinder
+        // thread halfway through publishing a finished search
+        if (!Arrays.equals(source, field.completeWeights)) {
+            return null;
+        }
+
+        int[] weights = source.clone();
+
+        PathCost cost = Pathfinder.costTypes.get(costType);
+        boolean naval = costType == Pathfinder.costNaval;
+        int[] states = pathfinder.tiles;
+
+        for (int i = 0; i < weights.length; i++) {
+            int amount = cost.getCost(team.id, states[i]);
+
+            if (amount == Pathfinder.impassable || (naval && amount >= NAVAL_LAND_COST)) {
+                weights[i] = BLOCKED;
+            }
+        }
+
+        boolean[] dangerous = null;
+
+        if (costType == Pathfinder.costGround) {
+            dangerous = new boolean[weights.length];
+
+            for (int i = 0; i < weights.length; i++) {
+                dangerous[i] = tiles.geti(i).dangerous();
+            }
+        }
+
+        return new FieldSnapshot(tiles.width, tiles.height, source, weights, dangerous);
+    }
+
+    /**
+     * Update thread only.
+     *
+     * @return whether the field finished a search with other weights than the
+     *         ones copied here
+     */
+    public boolean isOutdated(Pathfinder.Flowfield field) {
+        return field != null && field.hasCompleteWeights() && !Arrays.equals(source, field.completeWeights);
+    }
+
+    /**
+     * @return the tile a unit on {@code pos} moves to next, {@code pos} itself
+     *         when it is at the end of the path, or -1 when {@code pos} is off
+     *         the map. Positions are packed with {@link Point2#pack}
+     */
+    public int next(int pos) {
+        int x = Point2.x(pos);
+        int y = Point2.y(pos);
+
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+
+        int index = x + y * width;
+        int value = weights[index];
+        int best = -1;
+        int bestValue = 0;
+
+        for (Point2 point : Geometry.d8) {
+            int dx = x + point.x;
+            int dy = y + point.y;
+
+            if (dx < 0 || dy < 0 || dx >= width || dy >= height) {
+                continue;
+            }
+
+            int other = dx + dy * width;
+            int otherValue = weights[other];
+
+            if (otherValue >= value || otherValue == BLOCKED || (best >= 0 && otherValue >= bestValue)) {
+                continue;
+            }
+
+            // No cutting diagonally past a blocked corner
+            if (point.x != 0 && point.y != 0
+                    && (weights[dx + y * width] == BLOCKED || weights[x + dy * width] == BLOCKED)) {
+                continue;
+            }
+
+            best = other;
+            bestValue = otherValue;
+        }
+
+        if (best < 0 || bestValue == Pathfinder.impassable
+                || (dangerous != null && dangerous[best] && !dangerous[index])) {
+            return pos;
+        }
+
+        return Point2.pack(best % width, best / width);
+    }
+}
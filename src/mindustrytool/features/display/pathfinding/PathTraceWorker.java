@@ -0,0 +1,157 @@
+package mindustrytool.features.display.pathfinding;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import arc.util.Log;
+import mindustry.Vars;
+
+/**
+ * Traces paths along the game's flowfields away from the update thread. Jobs
+ * carry a {@link FieldSnapshot} taken when the field finished, tracing reads
+ * only that and its own tree, never the live field or the world, so the worker
+ * never waits on or blocks the game.
+ *
+ * Jobs go in and come back through lock-free queues and are pooled, the
+ * update thread only submits and collects them.
+ */
+public class PathTraceWorker {
+    public static class Job {
+        public PathTree tree;
+        public int tilePos;
+        public FieldSnapshot field;
+        public int maxSteps;
+
+        int generation;
+    }
+
+    private final ConcurrentLinkedQueue<Job> pending = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Job> done = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Job> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Only touched by the single running drain
+    private final int[] path;
+
+    // Bumped on reset, jobs of an older generation belong to another world
+    private volatile int generation = 0;
+
+    /** @param maxSteps the longest path a job may trace */
+    public PathTraceWorker(int maxSteps) {
+        this.path = new int[maxSteps + 1];
+    }
+
+    public Job obtain() {
+        Job job = pool.poll();
+        return job == null ? new Job() : job;
+    }
+
+    public void free(Job job) {
+        job.tree = null;
+        job.field = null;
+        pool.offer(job);
+    }
+
+    public void submit(Job job) {
+        job.generation = generation;
+        pending.offer(job);
+
+        if (running.compareAndSet(false, true)) {
+            Vars.mainExecutor.execute(this::drain);
+        }
+    }
+
+    /** @return a finished job, or null when none is ready */
+    public Job poll() {
+        Job job;
+
+        while ((job = done.poll()) != null) {
+            if (job.generation == generation) {
+                return job;
+            }
+
+            free(job);
+        }
+
+        return null;
+    }
+
+    /** Drops every queued and running job. */
+    public void reset() {
+        generation++;
+
+        Job job;
+        while ((job = pending.poll()) != null) {
+            free(job);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Job job;
+
+            while ((job = pending.poll()) != null) {
+                if (job.generation == generation) {
+                    trace(job);
+                }
+
+                done.offer(job);
+            }
+
+            running.set(false);
+
+            // A job submitted after the queue looked empty but before the flag
+            // was cleared would otherwise wait for the next submit
+            if (pending.isEmpty() || !running.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void trace(Job job) {
+        try {
+            if (job.field == null) {
+                return;
+            }
+
+            PathTree.Table table = job.tree.table();
+            int maxSteps = Math.min(job.maxSteps, path.length - 1);
+            int length = 0;
+            int current = job.tilePos;
+            int lastSteps = 0;
+            boolean terminal = false;
+
+            path[length++] = current;
+
+            while (true) {
+                int slot = table.find(current);
+
+                // Merged into a known path, the rest of it is already stored
+                if (slot >= 0) {
+                    lastSteps = table.remaining[slot];
+                    break;
+                }
+
+                if (length > maxSteps) {
+                    break;
+                }
+
+                int next = job.field.next(current);
+
+                if (next < 0 || next == current) {
+                    terminal = next >= 0;
+                    break;
+                }
+
+                current = next;
+                path[length++] = current;
+            }
+
+            if (length > 1 || terminal) {
+                job.tree.insert(table, path, length, lastSteps, terminal);
+            }
+        } catch (Exception e) {
+            Log.debug("Path trace failed: @", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package mindustrytool.features.display.pathfinding;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import arc.struct.IntSet;
+
+/**
+ * The next hop of every tile enemy units have been traced through, for one
+ * team and flowfield. Units on the same flowfield converge, so a new unit is
+ * only traced until it reaches a tile already in the tree and each shared
+ * stretch of path is stored and drawn once.
+ *
+ * Only the trace worker writes, the render thread reads without locking: a
+ * slot's key is published after its values and a grown table replaces the old
+ * one through an atomic reference. A reset publishes an empty table from the
+ * render thread the same way, the worker drops traces made against a table
+ * that has been replaced since.
+ */
+public class PathTree {
+    public static final int NONE = -1;
+
+    public static final class Table {
+        // Tile position + 1, 0 marks an empty slot
+        final AtomicIntegerArray keys;
+        public final int[] next;
+        // Steps from the tile to the end of the known path, the distance to merge
+        // for a unit that joins the tree here
+        public final int[] remaining;
+        // Frame a tile was last drawn in, render thread only
+        public final int[] stamps;
+        final int mask;
+        int size;
+
+        Table(int capacity) {
+            keys = new AtomicIntegerArray(capacity);
+            next = new int[capacity];
+            remaining = new int[capacity];
+            stamps = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        /** @return the slot of a tile, or -1 when the tile is not in the tree */
+        public int find(int pos) {
+            int key = pos + 1;
+
+            for (int i = hash(pos) & mask;; i = (i + 1) & mask) {
+                int current = keys.get(i);
+
+                if (current == key) {
+                    return i;
+                }
+
+                if (current == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(int pos, int nextPos, int steps) {
+            int key = pos + 1;
+
+            for (int i = hash(pos) & mask;; i = (i + 1) & mask) {
+                int current = keys.get(i);
+
+                if (current == 0 || current == key) {
+                    next[i] = nextPos;
+                    remaining[i] = steps;
+
+                    if (current == 0) {
+                        keys.lazySet(i, key);
+                        size++;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private static int hash(int pos) {
+            int h = pos * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final AtomicReference<Table> table = new AtomicReference<>(new Table(INITIAL_CAPACITY));
+
+    // Tiles with a trace queued, render thread only
+    private final IntSet pending = new IntSet();
+    // The flowfield new traces follow, render thread only
+    private FieldSnapshot field;
+    // Time a tile change last altered the field's cost, -1 once the field has
+    // been copied again since. Render thread only
+    private float changedAt = -1f;
+
+    public Table table() {
+        return table.get();
+    }
+
+    /** @return the field to trace new paths along, null until one is captured */
+    public FieldSnapshot field() {
+        return field;
+    }
+
+    public void setField(FieldSnapshot field) {
+        this.field = field;
+    }
+
+    public float changedAt() {
+        return changedAt;
+    }
+
+    public void markChanged(float time) {
+        changedAt = time;
+    }
+
+    public void clearChanged() {
+        changedAt = -1f;
+    }
+
+    /** Drops every hop and the field, traces still running are discarded. */
+    public void reset() {
+        table.set(new Table(INITIAL_CAPACITY));
+        pending.clear();
+        field = null;
+    }
+
+    public boolean markPending(int pos) {
+        return pending.add(pos);
+    }
+
+    public void clearPending(int pos) {
+        pending.remove(pos);
+    }
+
+    /**
+     * Worker only: stores a traced path. {@code path[i + 1]} is the next hop of
+     * {@code path[i]}, the last tile is already in the tree, is the end of the
+     * path, or was cut off by the step limit.
+     *
+     * @param traced    the table the path was traced against, nothing is
+     *                  stored once a reset replaced it
+     * @param lastSteps the remaining steps of the last tile when it is already
+     *                  in the tree, otherwise 0
+     * @param terminal  whether the last tile is the end of the path and has to
+     *                  be stored as such
+     */
+    void insert(Table traced, int[] path, int length, int lastSteps, boolean terminal) {
+        Table target = traced;
+
+        if (table.get() != target) {
+            return;
+        }
+
+        if ((target.size + length) * 2 > target.keys.length()) {
+            target = grow(target, target.size + length);
+
+            if (target == null) {
+                return;
+            }
+        }
+
+        if (terminal) {
+            target.put(path[length - 1], NONE, 0);
+        }
+
+        int steps = lastSteps;
+
+        for (int i = length - 2; i >= 0; i--) {
+            steps++;
+            target.put(path[i], path[i + 1], steps);
+        }
+    }
+
+    /** @return the grown table, or null when a reset replaced the old one meanwhile */
+    private Table grow(Table old, int needed) {
+        int capacity = old.keys.length();
+
+        while (needed * 2 > capacity) {
+            capacity *= 2;
+        }
+
+        Table grown = new Table(capacity);
+
+        for (int i = 0; i < old.keys.length(); i++) {
+            int key = old.keys.get(i);
+
+            if (key != 0) {
+                grown.put(key - 1, old.next[i], old.remaining[i]);
+            }
+        }
+
+        return table.compareAndSet(old, grown) ? grown : null;
+    }
+}
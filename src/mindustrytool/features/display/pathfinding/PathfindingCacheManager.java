@@ -1,35 +1,215 @@
 package mindustrytool.features.display.pathfinding;
 
-import arc.struct.LongMap;
-import arc.struct.LongSeq;
+import java.util.Arrays;
 
+/**
+ * Traced paths by key, kept in parallel arrays with every path in one shared
+ * float arena at a fixed stride. Entries are reused in place, a full cache
+ * evicts with a clock hand that spares entries drawn since it last passed, so
+ * nothing is allocated once the arena has grown to the working set.
+ */
 public class PathfindingCacheManager {
-    private final LongMap<PathfindingCache> cache = new LongMap<>();
-    private final LongSeq keysToRemove = new LongSeq();
+    private static final int EMPTY = -1;
 
-    public PathfindingCache get(long key) {
-        return cache.get(key);
+    private final int maxEntries;
+    private final int stride;
+
+    // Open addressing from key to entry, linear probing
+    private final int[] table;
+    private final int mask;
+
+    private final long[] keys;
+    private final float[] lastUsed;
+    private final float[] lastUpdate;
+    private final int[] sizes;
+    private final boolean[] used;
+    private final boolean[] referenced;
+
+    // Free entries, popped lowest first so the arena only grows as far as needed
+    private final int[] free;
+    private int freeCount;
+    private int clockHand;
+
+    private float[] data = new float[0];
+
+    /**
+     * @param maxEntries the most paths kept at once
+     * @param stride     the most floats one path may hold
+     */
+    public PathfindingCacheManager(int maxEntries, int stride) {
+        this.maxEntries = maxEntries;
+        this.stride = stride;
+
+        int capacity = Integer.highestOneBit(Math.max(maxEntries, 1) * 2 - 1) * 2;
+        table = new int[capacity];
+        mask = capacity - 1;
+
+        keys = new long[maxEntries];
+        lastUsed = new float[maxEntries];
+        lastUpdate = new float[maxEntries];
+        sizes = new int[maxEntries];
+        used = new boolean[maxEntries];
+        referenced = new boolean[maxEntries];
+        free = new int[maxEntries];
+
+        clear();
+    }
+
+    /** @return the entry of a key, or -1 when it is not cached */
+    public int find(long key) {
+        for (int i = hash(key) & mask;; i = (i + 1) & mask) {
+            int entry = table[i];
+
+            if (entry == EMPTY) {
+                return -1;
+            }
+
+            if (keys[entry] == key) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * @return the entry of a key, a new empty one that is due for an update
+     *         when it was not cached
+     */
+    public int obtain(long key, float currentTime) {
+        int existing = find(key);
+
+        if (existing >= 0) {
+            return existing;
+        }
+
+        if (freeCount == 0) {
+            evict();
+        }
+
+        int entry = free[--freeCount];
+        keys[entry] = key;
+        lastUsed[entry] = currentTime;
+        lastUpdate[entry] = Float.NEGATIVE_INFINITY;
+        sizes[entry] = 0;
+        used[entry] = true;
+        referenced[entry] = true;
+
+        int end = (entry + 1) * stride;
+        if (data.length < end) {
+            data = Arrays.copyOf(data, Math.min(Math.max(end, data.length * 2), maxEntries * stride));
+        }
+
+        int i = hash(key) & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry;
+
+        return entry;
+    }
+
+    /** Marks an entry as drawn, keeping it from eviction and cleanup. */
+    public void touch(int entry, float currentTime) {
+        lastUsed[entry] = currentTime;
+        referenced[entry] = true;
+    }
+
+    /** @return the most paths kept at once */
+    public int capacity() {
+        return maxEntries;
     }
 
-    public void put(long key, PathfindingCache value) {
-        cache.put(key, value);
+    /** The arena every path is stored in, re-read after {@link #obtain}. */
+    public float[] data() {
+        return data;
+    }
+
+    public int offset(int entry) {
+        return entry * stride;
+    }
+
+    public int stride() {
+        return stride;
+    }
+
+    public int size(int entry) {
+        return sizes[entry];
+    }
+
+    public void setSize(int entry, int size) {
+        sizes[entry] = size;
+    }
+
+    public float lastUpdate(int entry) {
+        return lastUpdate[entry];
+    }
+
+    public void setLastUpdate(int entry, float time) {
+        lastUpdate[entry] = time;
     }
 
     public void clear() {
-        cache.clear();
+        Arrays.fill(table, EMPTY);
+        Arrays.fill(used, false);
+
+        for (int i = 0; i < maxEntries; i++) {
+            free[i] = maxEntries - 1 - i;
+        }
+
+        freeCount = maxEntries;
+        clockHand = 0;
     }
 
     public void cleanup(float currentTime, float maxAge) {
-        keysToRemove.clear();
+        for (int i = 0; i < maxEntries; i++) {
+            if (used[i] && (currentTime - lastUsed[i]) > maxAge) {
+                remove(i);
+            }
+        }
+    }
+
+    private void evict() {
+        while (true) {
+            int entry = clockHand;
+            clockHand = (clockHand + 1) % maxEntries;
 
-        for (LongMap.Entry<PathfindingCache> entry : cache.entries()) {
-            if ((currentTime - entry.value.lastUsedTime) > maxAge) {
-                keysToRemove.add(entry.key);
+            if (!used[entry]) {
+                continue;
             }
+
+            if (referenced[entry]) {
+                referenced[entry] = false;
+                continue;
+            }
+
+            remove(entry);
+            return;
         }
+    }
 
-        for (int i = 0; i < keysToRemove.size; i++) {
-            cache.remove(keysToRemove.get(i));
+    private void remove(int entry) {
+        int i = hash(keys[entry]) & mask;
+        while (table[i] != entry) {
+            i = (i + 1) & mask;
         }
+
+        // Shift the rest of the probe run back so lookups never stop early
+        int gap = i;
+        for (int j = (gap + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+            int home = hash(keys[table[j]]) & mask;
+
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                table[gap] = table[j];
+                gap = j;
+            }
+        }
+        table[gap] = EMPTY;
+
+        used[entry] = false;
+        free[freeCount++] = entry;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
     }
-}
\ No newline at end of file
+}
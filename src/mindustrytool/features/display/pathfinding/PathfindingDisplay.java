@@ -5,18 +5,20 @@ import arc.Events;
 import arc.graphics.Color;
 import arc.graphics.g2d.Draw;
 import arc.graphics.g2d.Lines;
-import arc.math.Mathf;
 import arc.math.geom.Point2;
 import arc.math.geom.Rect;
 import arc.scene.ui.Dialog;
+import arc.struct.IntMap;
 import arc.struct.IntSet;
 import arc.struct.IntSet.IntSetIterator;
+import arc.struct.Seq;
 import arc.util.Interval;
 import arc.util.Time;
 import arc.util.Tmp;
 import mindustry.Vars;
 import mindustry.ai.Pathfinder;
 import mindustry.game.Team;
+import mindustry.game.EventType.TileChangeEvent;
 import mindustry.game.EventType.Trigger;
 import mindustry.game.EventType.WorldLoadEvent;
 import mindustry.gen.Groups;
@@ -38,9 +40,12 @@ public class PathfindingDisplay implements Feature {
     private static final int MAX_STEPS_MEDIUM = 150;
     private static final int MAX_STEPS_LOW = 250;
 
-    private static final int MAX_UPDATES_PER_FRAME = 3;
-    private static final float CACHE_UPDATE_INTERVAL_UNIT = 15f;
-    private static final float CACHE_CLEANUP_AGE_UNIT = 60f;
+    // Traces handed to the worker per frame and at most waiting on it
+    private static final int TRACE_BUDGET_PER_FRAME = 64;
+    private static final int MAX_TRACES_IN_FLIGHT = 512;
+    // Searches the pathfinder started before a tile change can still finish
+    // this long after it
+    private static final float FLOWFIELD_SETTLE_TIME = 30f;
     private static final float CACHE_CLEANUP_AGE_SPAWN = 60f;
     private static final float CACHE_UPDATE_INTERVAL_SPAWN = 60f;
 
@@ -48,20 +53,38 @@ public class PathfindingDisplay implements Feature {
     private static final float CULLING_GROW = 500f;
 
     private static final int MAX_SPAWN_PATH_STEPS = 1000;
+    private static final int SPAWN_PATH_STRIDE = (MAX_SPAWN_PATH_STEPS + 2) * 2;
+    // The cache holds one path per spawn, team and cost type, sized to what
+    // the world needs but never below this
+    private static final int MIN_SPAWN_PATHS = 64;
 
     private static final int TIMER_CLEANUP = 0;
     private static final float CLEANUP_SCHEDULE_FRAMES = 60f;
 
-    private final PathfindingCacheManager pathCache = new PathfindingCacheManager();
-    private final PathfindingCacheManager spawnPathCache = new PathfindingCacheManager();
+    private PathfindingCacheManager spawnPathCache = new PathfindingCacheManager(MIN_SPAWN_PATHS,
+            SPAWN_PATH_STRIDE);
+    private final PathTraceWorker traceWorker = new PathTraceWorker(MAX_STEPS_LOW);
+    private final IntMap<PathTree> pathTrees = new IntMap<>();
+    private final float[] spawnTraceBuffer = new float[SPAWN_PATH_STRIDE];
 
     private final IntSet updateActiveTeams = new IntSet();
     private final IntSet drawActiveTeams = new IntSet();
+    private final Seq<Tile> changedTiles = new Seq<>();
     private final Interval timer = new Interval(1);
 
+    // Spawn path state per flowfield, indexed by fieldIndex(team, costType)
+    private boolean[] spawnFieldDirty = new boolean[0];
+    private float[] spawnFieldChangedAt = new float[0];
+    private float[] spawnFieldTracedAt = new float[0];
+    // The pathfinder's tile states as of the last tile change, to tell which
+    // fields a change affects
+    private int[] tileStates = new int[0];
+
     private boolean isEnabled;
 
     private int currentFrameUpdates;
+    private int tracesInFlight;
+    private int drawFrame;
     private float currentOpacity;
 
     @Override
@@ -83,10 +106,114 @@ public class PathfindingDisplay implements Feature {
         Events.run(Trigger.update, this::update);
 
         Events.on(WorldLoadEvent.class, e -> reset());
+        Events.on(TileChangeEvent.class, e -> markChangedFields(e.tile));
     }
 
     public void reset() {
-        spawnPathCache.clear();
+        pathTrees.clear();
+        spawnPathCache = new PathfindingCacheManager(Math.max(MIN_SPAWN_PATHS, countSpawnPaths()),
+                SPAWN_PATH_STRIDE);
+        traceWorker.reset();
+        tracesInFlight = 0;
+
+        int fields = Team.all.length * Pathfinder.costTypes.size;
+        spawnFieldDirty = new boolean[fields];
+        spawnFieldChangedAt = new float[fields];
+        spawnFieldTracedAt = new float[fields];
+        Arrays.fill(spawnFieldDirty, true);
+        Arrays.fill(spawnFieldChangedAt, Time.time);
+        Arrays.fill(spawnFieldTracedAt, Float.NEGATIVE_INFINITY);
+        tileStates = pathfinder == null ? new int[0] : pathfinder.tiles.clone();
+    }
+
+    // Every spawn is traced for every enemy team with spawn groups and every
+    // cost type, a smaller cache would evict paths that are still drawn
+    private int countSpawnPaths() {
+        if (!state.isGame() || spawner == null) {
+            return 0;
+        }
+
+        updateActiveTeams.clear();
+        for (var spawnPoint : Vars.state.rules.spawns) {
+            var team = spawnPoint.team == null ? Vars.state.rules.waveTeam : spawnPoint.team;
+            if (team != player.team()) {
+                updateActiveTeams.add(team.id);
+            }
+        }
+
+        return spawner.getSpawns().size * updateActiveTeams.size * Pathfinder.costTypes.size;
+    }
+
+    private static int fieldIndex(int teamId, int costType) {
+        return costType * Team.all.length + teamId;
+    }
+
+    private void markSpawnFieldDirty(int field) {
+        if (field < spawnFieldDirty.length) {
+            spawnFieldDirty[field] = true;
+            spawnFieldChangedAt[field] = Time.time;
+        }
+    }
+
+    // The pathfinder packs changed tiles in its own listener, registered before
+    // any mod's. Only the fields whose cost for a changed tile differs now are
+    // rebuilt by the change, the others keep their traced paths
+    private void markChangedFields(Tile tile) {
+        if (pathfinder == null || tile == null) {
+            return;
+        }
+
+        int[] states = pathfinder.tiles;
+
+        if (tileStates.length != states.length) {
+            tileStates = states.clone();
+
+            for (int i = 0; i < spawnFieldDirty.length; i++) {
+                markSpawnFieldDirty(i);
+            }
+
+            for (PathTree tree : pathTrees.values()) {
+                tree.markChanged(Time.time);
+            }
+            return;
+        }
+
+        for (Tile linked : tile.getLinkedTiles(changedTiles)) {
+            int index = linked.array();
+
+            if (index >= states.length || states[index] == tileStates[index]) {
+                continue;
+            }
+
+            for (IntSetIterator it = updateActiveTeams.iterator(); it.hasNext;) {
+                int teamId = it.next();
+
+                for (int costType = 0; costType < Pathfinder.costTypes.size; costType++) {
+                    Pathfinder.PathCost cost = Pathfinder.costTypes.get(costType);
+
+                    if (cost.getCost(teamId, tileStates[index]) != cost.getCost(teamId, states[index])) {
+                        markSpawnFieldDirty(fieldIndex(teamId, costType));
+                    }
+                }
+            }
+
+            for (IntMap.Entry<PathTree> entry : pathTrees) {
+                int teamId = entry.key & 0xff;
+                Pathfinder.PathCost cost = Pathfinder.costTypes.get(entry.key >>> 8);
+
+                if (cost.getCost(teamId, tileStates[index]) != cost.getCost(teamId, states[index])) {
+                    entry.value.markChanged(Time.time);
+                }
+            }
+
+            tileStates[index] = states[index];
+        }
+    }
+
+    // Matches what draw() shows, spawn paths are not traced while they would not be drawn
+    private boolean isOverlayVisible() {
+        return Vars.ui.hudfrag != null && Vars.ui.hudfrag.shown
+                && renderer.getScale() >= PathfindingConfig.getZoomThreshold();
     }
 
     @Override
@@ -97,8 +224,7 @@ public class PathfindingDisplay implements Feature {
     @Override
     public void onDisable() {
         isEnabled = false;
-        pathCache.clear();
-        spawnPathCache.clear();
+        reset();
     }
 
     @Override
@@ -111,30 +237,20 @@ public class PathfindingDisplay implements Feature {
             return;
         }
 
-        if (timer.get(TIMER_CLEANUP, CLEANUP_SCHEDULE_FRAMES)) {
-            float time = Time.time;
-            pathCache.cleanup(time, CACHE_CLEANUP_AGE_UNIT);
-            spawnPathCache.cleanup(time, CACHE_CLEANUP_AGE_SPAWN);
-        }
-
-        if (PathfindingConfig.isDrawSpawnPointPath()) {
+        if (PathfindingConfig.isDrawSpawnPointPath() && isOverlayVisible()) {
             updateSpawnPointPaths();
         }
 
+        collectTraces();
+        refreshPathTrees();
+
         if (PathfindingConfig.isDrawUnitPath()) {
             updateUnitPaths();
         }
     }
 
     private void draw() {
-        if (!isEnabled || !state.isGame() || Vars.ui.hudfrag == null || !Vars.ui.hudfrag.shown) {
-            return;
-        }
-
-        float zoomThreshold = PathfindingConfig.getZoomThreshold();
-        float currentZoom = renderer.getScale();
-
-        if (currentZoom < zoomThreshold) {
+        if (!isEnabled || !state.isGame() || !isOverlayVisible()) {
             return;
         }
 
@@ -151,26 +267,22 @@ public class PathfindingDisplay implements Feature {
 
     private void updateUnitPaths() {
         int totalUnits = Groups.unit.size();
-        int maxSteps = (totalUnits > 2000) ? MAX_STEPS_VERY_HIGH
-                : (totalUnits > 1000) ? MAX_STEPS_HIGH : (totalUnits > 500) ? MAX_STEPS_MEDIUM : MAX_STEPS_LOW;
-
         boolean useCulling = totalUnits > CULLING_THRESHOLD;
         Rect cullBounds = useCulling ? Core.camera.bounds(Tmp.r1).grow(CULLING_GROW) : null;
-        float currentTime = Time.time;
         currentFrameUpdates = 0;
 
         if (useCulling) {
             Groups.unit.intersect(cullBounds.x, cullBounds.y, cullBounds.width, cullBounds.height, unit -> {
-                updateProcessUnitPath(unit, currentTime, maxSteps);
+                updateProcessUnitPath(unit);
             });
         } else {
             for (Unit unit : Groups.unit) {
-                updateProcessUnitPath(unit, currentTime, maxSteps);
+                updateProcessUnitPath(unit);
             }
         }
     }
 
-    private void updateProcessUnitPath(Unit unit, float currentTime, int maxSteps) {
+    private void updateProcessUnitPath(Unit unit) {
         if (unit == null || unit.type == null) {
             return;
         }
@@ -179,146 +291,173 @@ public class PathfindingDisplay implements Feature {
             return;
         }
 
-        long packedPosition = Point2.pack(unit.tileX(), unit.tileY());
-        long cacheKey = (((long) packedPosition) << 32) | ((long) unit.type.flowfieldPathType << 8)
-                | (long) unit.team.id;
-
-        PathfindingCache cacheEntry = pathCache.get(cacheKey);
-
-        if (cacheEntry == null || (currentTime - cacheEntry.lastUpdateTime) > CACHE_UPDATE_INTERVAL_UNIT) {
-            if (cacheEntry == null) {
-                cacheEntry = new PathfindingCache();
-                cacheEntry.data = new float[MAX_STEPS_LOW * 2];
-                pathCache.put(cacheKey, cacheEntry);
-            }
+        if (currentFrameUpdates >= TRACE_BUDGET_PER_FRAME || tracesInFlight >= MAX_TRACES_IN_FLIGHT
+                || pathfinder == null) {
+            return;
+        }
 
-            if (currentFrameUpdates < MAX_UPDATES_PER_FRAME) {
-                cacheEntry.size = 0;
-                recalculatePath(unit, cacheEntry, maxSteps);
-                cacheEntry.lastUpdateTime = currentTime + Mathf.random(3f, 8f);
-                currentFrameUpdates++;
-            }
+        Tile tile = unit.tileOn();
+        if (tile == null) {
+            return;
         }
-    }
 
-    private void drawUnitPaths() {
-        Draw.z(Layer.overlayUI);
+        PathTree tree = getTree(unit.team, unit.type.flowfieldPathType);
+        int pos = tile.pos();
 
-        int totalUnits = Groups.unit.size();
-        int maxSteps = (totalUnits > 2000) ? MAX_STEPS_VERY_HIGH
-                : (totalUnits > 1000) ? MAX_STEPS_HIGH : (totalUnits > 500) ? MAX_STEPS_MEDIUM : MAX_STEPS_LOW;
+        if (tree.table().find(pos) >= 0) {
+            return;
+        }
 
-        boolean useCulling = totalUnits > CULLING_THRESHOLD;
-        Rect cullBounds = useCulling ? Core.camera.bounds(Tmp.r1).grow(CULLING_GROW) : null;
-        float currentTime = Time.time;
+        if (tree.field() == null) {
+            int costType = unit.type.flowfieldPathType;
+            tree.setField(FieldSnapshot.capture(pathfinder.getField(unit.team, costType, Pathfinder.fieldCore),
+                    unit.team, costType));
 
-        if (useCulling) {
-            Groups.unit.intersect(cullBounds.x, cullBounds.y, cullBounds.width, cullBounds.height, unit -> {
-                drawProcessUnitPath(unit, currentTime, maxSteps);
-            });
-        } else {
-            for (Unit unit : Groups.unit) {
-                drawProcessUnitPath(unit, currentTime, maxSteps);
+            if (tree.field() == null) {
+                return;
             }
         }
-    }
 
-    private void drawProcessUnitPath(Unit unit, float currentTime, int maxSteps) {
-        if (unit.team == player.team()) {
+        if (!tree.markPending(pos)) {
             return;
         }
 
-        long packedPosition = Point2.pack(unit.tileX(), unit.tileY());
-        long cacheKey = (((long) packedPosition) << 32) | ((long) unit.type.flowfieldPathType << 8)
-                | (long) unit.team.id;
+        PathTraceWorker.Job job = traceWorker.obtain();
+        job.tree = tree;
+        job.tilePos = pos;
+        job.maxSteps = MAX_STEPS_LOW;
+        job.field = tree.field();
 
-        PathfindingCache cacheEntry = pathCache.get(cacheKey);
+        traceWorker.submit(job);
+        tracesInFlight++;
+        currentFrameUpdates++;
+    }
 
-        if (cacheEntry == null) {
-            return;
-        }
+    private PathTree getTree(Team team, int costType) {
+        int key = (costType << 8) | team.id;
+        PathTree tree = pathTrees.get(key);
 
-        if (cacheEntry.lastUsedTime == currentTime) {
-            return;
+        if (tree == null) {
+            tree = new PathTree();
+            pathTrees.put(key, tree);
         }
 
-        cacheEntry.lastUsedTime = currentTime;
+        return tree;
+    }
+
+    private void collectTraces() {
+        PathTraceWorker.Job job;
 
-        if (cacheEntry.size >= 2) {
-            cacheEntry.data[0] = unit.x;
-            cacheEntry.data[1] = unit.y;
+        while ((job = traceWorker.poll()) != null) {
+            tracesInFlight--;
+            job.tree.clearPending(job.tilePos);
+            traceWorker.free(job);
         }
-
-        drawFromCache(cacheEntry, unit.team.color, maxSteps);
     }
 
-    private void recalculatePath(Unit unit, PathfindingCache cacheEntry, int maxSteps) {
+    // Flowfields are rebuilt by the game after blocks change. A tree whose
+    // field cost changed keeps drawing its hops until the field finishes a
+    // search with other weights, then starts over along a copy of them
+    private void refreshPathTrees() {
         if (pathfinder == null) {
             return;
         }
 
-        Tile tile = unit.tileOn();
-        if (tile == null) {
-            return;
-        }
-
-        int costType = unit.type.flowfieldPathType;
-        int fieldType = Pathfinder.fieldCore;
-        Pathfinder.Flowfield field = pathfinder.getField(unit.team, costType, fieldType);
+        for (IntMap.Entry<PathTree> entry : pathTrees) {
+            PathTree tree = entry.value;
 
-        if (field == null) {
-            cacheEntry.size = 0;
-            return;
-        }
+            if (tree.changedAt() < 0 || tree.field() == null) {
+                continue;
+            }
 
-        Tile currentTile = tile;
-        cacheEntry.data[0] = unit.x;
-        cacheEntry.data[1] = unit.y;
-        int dataIndex = 2;
+            Team team = Team.get(entry.key & 0xff);
+            int costType = entry.key >>> 8;
+            Pathfinder.Flowfield field = pathfinder.getField(team, costType, Pathfinder.fieldCore);
 
-        for (int i = 0; i < maxSteps; i++) {
-            Tile nextTile = pathfinder.getTargetTile(currentTile, field);
-            if (nextTile == null || nextTile == currentTile) {
-                break;
+            if (!tree.field().isOutdated(field)) {
+                continue;
             }
 
-            if (dataIndex >= cacheEntry.data.length - 2) {
-                break;
+            tree.reset();
+            tree.setField(FieldSnapshot.capture(field, team, costType));
+
+            // A search started before the change may have finished first, the
+            // tree is watched until one had time to include it
+            if (tree.field() != null && Time.time - tree.changedAt() > FLOWFIELD_SETTLE_TIME) {
+                tree.clearChanged();
             }
+        }
+    }
 
-            cacheEntry.data[dataIndex++] = nextTile.worldx();
-            cacheEntry.data[dataIndex++] = nextTile.worldy();
-            currentTile = nextTile;
+    private void drawUnitPaths() {
+        Draw.z(Layer.overlayUI);
+
+        int totalUnits = Groups.unit.size();
+        int maxSteps = (totalUnits > 2000) ? MAX_STEPS_VERY_HIGH
+                : (totalUnits > 1000) ? MAX_STEPS_HIGH : (totalUnits > 500) ? MAX_STEPS_MEDIUM : MAX_STEPS_LOW;
+
+        boolean useCulling = totalUnits > CULLING_THRESHOLD;
+        Rect cullBounds = useCulling ? Core.camera.bounds(Tmp.r1).grow(CULLING_GROW) : null;
+        drawFrame++;
+
+        Lines.stroke(1f);
+
+        if (useCulling) {
+            Groups.unit.intersect(cullBounds.x, cullBounds.y, cullBounds.width, cullBounds.height, unit -> {
+                drawProcessUnitPath(unit, maxSteps);
+            });
+        } else {
+            for (Unit unit : Groups.unit) {
+                drawProcessUnitPath(unit, maxSteps);
+            }
         }
-        cacheEntry.size = dataIndex;
+
+        Draw.reset();
     }
 
-    private void drawFromCache(PathfindingCache cacheEntry, Color pathColor, int maxSteps) {
-        if (cacheEntry.size < 4) {
+    // Walks the tree from the unit and stops at the first tile another unit
+    // already drew this frame, so a shared trunk is drawn once
+    private void drawProcessUnitPath(Unit unit, int maxSteps) {
+        if (unit.team == player.team()) {
             return;
         }
 
-        Lines.stroke(1f);
+        PathTree tree = pathTrees.get((unit.type.flowfieldPathType << 8) | unit.team.id);
+
+        if (tree == null) {
+            return;
+        }
 
-        float currentX = cacheEntry.data[0];
-        float currentY = cacheEntry.data[1];
-        int totalSegments = (cacheEntry.size / 2) - 1;
+        PathTree.Table table = tree.table();
+        int slot = table.find(Point2.pack(unit.tileX(), unit.tileY()));
 
-        if (totalSegments <= 0) {
+        if (slot < 0 || table.next[slot] == PathTree.NONE) {
             return;
         }
 
-        for (int i = 0; i < totalSegments; i++) {
-            float nextX = cacheEntry.data[(i + 1) * 2];
-            float nextY = cacheEntry.data[(i + 1) * 2 + 1];
+        Color pathColor = unit.team.color;
+        float currentX = unit.x;
+        float currentY = unit.y;
+        int pos = table.next[slot];
+
+        for (int i = 0; i < maxSteps; i++) {
+            float nextX = Point2.x(pos) * tilesize;
+            float nextY = Point2.y(pos) * tilesize;
 
             Draw.color(pathColor, (1f - ((float) i / maxSteps)) * currentOpacity);
             Lines.line(currentX, currentY, nextX, nextY);
 
+            slot = table.find(pos);
+
+            if (slot < 0 || table.stamps[slot] == drawFrame || table.next[slot] == PathTree.NONE) {
+                break;
+            }
+
+            table.stamps[slot] = drawFrame;
             currentX = nextX;
             currentY = nextY;
+            pos = table.next[slot];
         }
-        Draw.reset();
     }
 
     private void updateSpawnPointPaths() {
@@ -328,12 +467,11 @@ public class PathfindingDisplay implements Feature {
 
         float currentTime = Time.time;
 
-        updateActiveTeams.clear();
-        for (var spawnPoint : Vars.state.rules.spawns) {
-            var team = spawnPoint.team == null ? Vars.state.rules.waveTeam : spawnPoint.team;
-            if (team != player.team()) {
-                updateActiveTeams.add(team.id);
-            }
+        // Spawns and wave teams can change after the world loaded
+        int needed = countSpawnPaths();
+        if (needed > spawnPathCache.capacity()) {
+            spawnPathCache = new PathfindingCacheManager(Math.max(needed, spawnPathCache.capacity() * 2),
+                    SPAWN_PATH_STRIDE);
         }
 
         for (IntSetIterator it = updateActiveTeams.iterator(); it.hasNext;) {
@@ -345,20 +483,42 @@ public class PathfindingDisplay implements Feature {
                     continue;
                 }
 
+                int field = fieldIndex(teamId, costType);
+
+                if (field >= spawnFieldDirty.length) {
+                    continue;
+                }
+
+                boolean retrace = spawnFieldDirty[field]
+                        && currentTime - spawnFieldTracedAt[field] > CACHE_UPDATE_INTERVAL_SPAWN;
+                boolean changed = false;
+
                 for (var spawnTile : Vars.spawner.getSpawns()) {
                     long key = ((long) spawnTile.pos() << 32) | ((long) costType << 16) | (long) team.id;
-                    PathfindingCache cache = spawnPathCache.get(key);
-
-                    if (cache == null) {
-                        cache = new PathfindingCache();
-                        cache.data = new float[2048];
-                        spawnPathCache.put(key, cache);
+                    int entry = spawnPathCache.obtain(key, currentTime);
+
+                    // New paths are traced right away, the field may still be searching
+                    // so they are checked again until they settle
+                    if (spawnPathCache.lastUpdate(entry) == Float.NEGATIVE_INFINITY) {
+                        updateSpawnPathCache(entry, spawnTile, team, costType);
+                        spawnPathCache.setLastUpdate(entry, currentTime);
+                        markSpawnFieldDirty(field);
+                    } else if (retrace) {
+                        changed |= updateSpawnPathCache(entry, spawnTile, team, costType);
+                        spawnPathCache.setLastUpdate(entry, currentTime);
                     }
+                }
 
-                    if ((currentTime - cache.lastUpdateTime) > CACHE_UPDATE_INTERVAL_SPAWN) {
-                        updateSpawnPathCache(cache, spawnTile, team, costType);
-                        cache.lastUpdateTime = currentTime + Mathf.random(0f, 20f);
-                    }
+                if (!retrace) {
+                    continue;
+                }
+
+                spawnFieldTracedAt[field] = currentTime;
+
+                // The game rebuilds a flowfield over a few frames after a change,
+                // its paths are only final once a pass traces them unchanged
+                if (!changed && currentTime - spawnFieldChangedAt[field] > CACHE_UPDATE_INTERVAL_SPAWN) {
+                    spawnFieldDirty[field] = false;
                 }
             }
         }
@@ -392,44 +552,46 @@ public class PathfindingDisplay implements Feature {
 
                 for (var spawnTile : Vars.spawner.getSpawns()) {
                     long key = ((long) spawnTile.pos() << 32) | ((long) costType << 16) | (long) team.id;
-                    PathfindingCache cache = spawnPathCache.get(key);
-
-                    if (cache != null) {
-                        cache.lastUsedTime = currentTime;
+                    int entry = spawnPathCache.find(key);
 
-                        if (cache.size > 0) {
-                            drawSpawnPathFromCache(cache, team.color);
-                        }
+                    if (entry >= 0) {
+                        spawnPathCache.touch(entry, currentTime);
+                        drawSpawnPathFromCache(entry, team.color);
                     }
                 }
             }
         }
 
+        // Paths are only dropped after a pass that drew the rest, so nothing
+        // is evicted while the overlay is hidden
+        if (timer.get(TIMER_CLEANUP, CLEANUP_SCHEDULE_FRAMES)) {
+            spawnPathCache.cleanup(currentTime, CACHE_CLEANUP_AGE_SPAWN);
+        }
+
         Draw.reset();
     }
 
-    private void updateSpawnPathCache(PathfindingCache cache, Tile startTile, Team team, int costType) {
+    /** @return whether the traced path differs from the cached one */
+    private boolean updateSpawnPathCache(int entry, Tile startTile, Team team, int costType) {
         int fieldType = Pathfinder.fieldCore;
         Pathfinder.Flowfield field = pathfinder.getField(team, costType, fieldType);
 
         if (field == null) {
-            cache.size = 0;
-            return;
+            boolean changed = spawnPathCache.size(entry) != 0;
+            spawnPathCache.setSize(entry, 0);
+            return changed;
         }
 
-        Tile currentTile = startTile;
-        float segmentStartX = startTile.worldx();
-        float segmentStartY = startTile.worldy();
+        float[] data = spawnTraceBuffer;
+        // Room for the closing vertex is always kept
+        int limit = Math.min(data.length, spawnPathCache.stride()) - 2;
 
+        Tile currentTile = startTile;
         int lastDx = -2, lastDy = -2;
         int dataIndex = 0;
 
-        if (dataIndex + 2 > cache.data.length) {
-            cache.data = Arrays.copyOf(cache.data, cache.data.length * 2);
-        }
-
-        cache.data[dataIndex++] = segmentStartX;
-        cache.data[dataIndex++] = segmentStartY;
+        data[dataIndex++] = startTile.worldx();
+        data[dataIndex++] = startTile.worldy();
 
         for (int i = 0; i < MAX_SPAWN_PATH_STEPS; i++) {
             Tile nextTile = pathfinder.getTargetTile(currentTile, field);
@@ -446,10 +608,11 @@ public class PathfindingDisplay implements Feature {
 
             if (dx != lastDx || dy != lastDy) {
                 if (i > 0) {
-                    if (dataIndex + 2 > cache.data.length)
-                        cache.data = Arrays.copyOf(cache.data, cache.data.length * 2);
-                    cache.data[dataIndex++] = currentTile.worldx();
-                    cache.data[dataIndex++] = currentTile.worldy();
+                    if (dataIndex >= limit) {
+                        break;
+                    }
+                    data[dataIndex++] = currentTile.worldx();
+                    data[dataIndex++] = currentTile.worldy();
                 }
                 lastDx = dx;
                 lastDy = dy;
@@ -457,24 +620,37 @@ public class PathfindingDisplay implements Feature {
             currentTile = nextTile;
         }
 
-        if (dataIndex + 2 > cache.data.length)
-            cache.data = Arrays.copyOf(cache.data, cache.data.length * 2);
-        cache.data[dataIndex++] = currentTile.worldx();
-        cache.data[dataIndex++] = currentTile.worldy();
+        data[dataIndex++] = currentTile.worldx();
+        data[dataIndex++] = currentTile.worldy();
 
-        cache.size = dataIndex;
+        float[] cached = spawnPathCache.data();
+        int offset = spawnPathCache.offset(entry);
+        int size = spawnPathCache.size(entry);
+
+        if (size == dataIndex && Arrays.equals(data, 0, dataIndex, cached, offset, offset + size)) {
+            return false;
+        }
+
+        System.arraycopy(data, 0, cached, offset, dataIndex);
+        spawnPathCache.setSize(entry, dataIndex);
+        return true;
     }
 
-    private void drawSpawnPathFromCache(PathfindingCache cache, Color color) {
-        if (cache.size < 4) {
+    private void drawSpawnPathFromCache(int entry, Color color) {
+        int size = spawnPathCache.size(entry);
+
+        if (size < 4) {
             return;
         }
 
+        float[] data = spawnPathCache.data();
+        int offset = spawnPathCache.offset(entry);
+
         Draw.color(color, currentOpacity);
         Lines.stroke(1f);
 
-        for (int i = 0; i < cache.size - 2; i += 2) {
-            Lines.line(cache.data[i], cache.data[i + 1], cache.data[i + 2], cache.data[i + 3]);
+        for (int i = offset; i < offset + size - 2; i += 2) {
+            Lines.line(data[i], data[i + 1], data[i + 2], data[i + 3]);
         }
     }
 }
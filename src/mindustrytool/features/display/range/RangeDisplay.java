@@ -2,7 +2,6 @@ package mindustrytool.features.display.range;
 
 import arc.Core;
 import arc.Events;
-import arc.func.Boolf;
 import arc.func.Cons;
 import arc.graphics.Color;
 import arc.graphics.g2d.Draw;
@@ -11,27 +10,18 @@ import arc.math.Angles;
 import arc.math.Mathf;
 import arc.math.geom.Rect;
 import arc.scene.ui.Dialog;
+import arc.struct.FloatSeq;
 import arc.util.Tmp;
 import mindustry.Vars;
 import mindustry.entities.bullet.BulletType;
 import mindustry.game.EventType.Trigger;
-import mindustry.game.Team;
 import mindustry.gen.Building;
 import mindustry.gen.Groups;
 import mindustry.gen.Unit;
 import mindustry.graphics.Layer;
+import mindustry.type.UnitType;
 import mindustry.ui.dialogs.BaseDialog;
 import mindustry.world.Tile;
-import mindustry.world.blocks.defense.BuildTurret;
-import mindustry.world.blocks.defense.MendProjector;
-import mindustry.world.blocks.defense.OverdriveProjector;
-import mindustry.world.blocks.defense.RegenProjector;
-import mindustry.world.blocks.defense.OverdriveProjector.OverdriveBuild;
-import mindustry.world.blocks.defense.turrets.Turret;
-import mindustry.world.blocks.defense.turrets.Turret.TurretBuild;
-import mindustry.world.blocks.distribution.MassDriver;
-import mindustry.world.blocks.logic.LogicBlock;
-import mindustry.world.blocks.power.LightBlock;
 import mindustrytool.Utils;
 import mindustrytool.features.Feature;
 import mindustrytool.features.FeatureMetadata;
@@ -42,9 +32,10 @@ public class RangeDisplay implements Feature {
     private BaseDialog dialog;
 
     private final Cons<Unit> unitDrawer = this::drawUnitRange;
-    private final Cons<Building> buildingDrawer = this::drawBuildingRange;
-    private final Boolf<Building> buildingPredicate = b -> true;
+    private final RangeIndex rangeIndex = new RangeIndex();
+    private final Rect cameraBounds = new Rect();
     private final Rect viewBounds = new Rect();
+    private float maxUnitRange = -1;
     private final int MAX_RANGE = 169 * Vars.tilesize;
 
 
@@ -82,12 +73,8 @@ public class RangeDisplay implements Feature {
         }
 
         Draw.z(Layer.overlayUI);
-        float cx = Core.camera.position.x;
-        float cy = Core.camera.position.y;
-        float cw = Core.camera.width;
-        float ch = Core.camera.height;
-
-        Core.camera.bounds(viewBounds).grow(MAX_RANGE);
+        Core.camera.bounds(cameraBounds);
+        viewBounds.set(cameraBounds).grow(MAX_RANGE);
 
         if (RangeDisplayConfig.drawSpawnerRange) {
             if (Vars.spawner.getSpawns() != null) {
@@ -108,16 +95,30 @@ public class RangeDisplay implements Feature {
         }
 
         if (RangeDisplayConfig.drawUnitRangeAlly || RangeDisplayConfig.drawUnitRangeEnemy) {
-            float margin = 2000f;
-            Groups.unit.intersect(cx - cw / 2f - margin, cy - ch / 2f - margin, cw + margin * 2, ch + margin * 2,
-                    unitDrawer);
+            float margin = maxUnitRange();
+            Groups.unit.intersect(cameraBounds.x - margin, cameraBounds.y - margin,
+                    cameraBounds.width + margin * 2, cameraBounds.height + margin * 2, unitDrawer);
         }
 
-        Vars.indexer.eachBlock(null, cx, cy, MAX_RANGE, buildingPredicate, buildingDrawer);
+        rangeIndex.update();
+
+        for (RangeIndex.Entry entry : rangeIndex.visible(cameraBounds)) {
+            drawBuildingRange(entry);
+        }
 
         Draw.reset();
     }
 
+    private float maxUnitRange() {
+        if (maxUnitRange < 0) {
+            maxUnitRange = 0;
+            for (UnitType type : Vars.content.units()) {
+                maxUnitRange = Math.max(maxUnitRange, type.maxRange);
+            }
+        }
+        return maxUnitRange;
+    }
+
     private void drawUnitRange(Unit unit) {
         if (!unit.isValid())
             return;
@@ -139,77 +140,42 @@ public class RangeDisplay implements Feature {
         }
     }
 
-    private void drawBuildingRange(Building build) {
-        if (!build.isValid() || build.team == Team.derelict) {
-            return;
-        }
-
-        boolean isAlly = build.team == Vars.player.team();
-        boolean isTurret = build.block instanceof Turret;
-        boolean canShoot = build instanceof TurretBuild bt && ((bt.canConsume() && bt.hasAmmo()) || (!build.enabled && bt.peekAmmo() != null));
-        float range = 0;
-        var circle = true;
+    private void drawBuildingRange(RangeIndex.Entry entry) {
+        Building build = entry.build;
 
-
-        // config check
-        if (isTurret) {
-            if (isAlly && !RangeDisplayConfig.drawTurretRangeAlly)
-                return;
-            if (!isAlly && !RangeDisplayConfig.drawTurretRangeEnemy)
-                return;
-        }
-        else {
-            if (isAlly && !RangeDisplayConfig.drawBlockRangeAlly)
-                return;
-            if (!isAlly && !RangeDisplayConfig.drawBlockRangeEnemy)
-                return;
-        }
-        
-
-        // range calculation
-        if (isTurret) {
-            range = ((Turret) build.block).range;
-            var ammo = ((TurretBuild) build).peekAmmo();
-            if (ammo != null) {
-                range = range + ammo.rangeChange;
-            }
-        } else if (build instanceof OverdriveBuild projector && build.block instanceof OverdriveProjector od) {
-            range = od.range + projector.phaseHeat * od.phaseRangeBoost;
-        } else if (build.block instanceof MassDriver massDriver) {
-            range = massDriver.range;
-        } else if (build.block instanceof BuildTurret od) {
-            range = od.range;
-        } else if (build.block instanceof LightBlock) {
-            return;
-        } else if (build.block instanceof LogicBlock) {
+        if (!build.isValid()) {
             return;
-        } else if (build.block instanceof MendProjector rdb) {
-            range = rdb.range;
-        } else if (build.block instanceof RegenProjector p){
-            range = p.range * Vars.tilesize;
-            circle = false;
         }
 
-
         // color set
         Color color;
-        if(isTurret && !canShoot) {
+        if (entry.turret && !entry.active) {
             color = Color.gray;
         } else {
             color = build.team.color;
         }
 
-
         // draw
-        if (range > 0) {
-            if (circle) {
-                drawCircle(build.x, build.y, range, color);
-            } else {
-                drawSquare(build.x, build.y, range, color);
-            }
+        if (!entry.circle) {
+            drawSquare(build.x, build.y, entry.range, color);
+        } else if (entry.outlineDirty) {
+            drawCircle(build.x, build.y, entry.range, color);
+        } else if (entry.outline.size > 0) {
+            drawOutline(entry.outline, color);
         }
     }
 
+    private void drawOutline(FloatSeq outline, Color color) {
+        Tmp.c2.set(color).a(RangeDisplayConfig.opacity);
+        Lines.stroke(1f, Tmp.c2);
+
+        float[] items = outline.items;
+        for (int i = 0; i < outline.size; i += 4) {
+            Lines.line(items[i], items[i + 1], items[i + 2], items[i + 3], false);
+        }
+
+        Draw.reset();
+    }
 
     private void drawSquare(float x, float y, float range, Color color) {
         Tmp.c2.set(color).a(RangeDisplayConfig.opacity);
@@ -0,0 +1,391 @@
+package mindustrytool.features.display.range;
+
+import arc.Events;
+import arc.func.Cons;
+import arc.math.Mathf;
+import arc.math.geom.Point2;
+import arc.math.geom.Rect;
+import arc.struct.FloatSeq;
+import arc.struct.IntMap;
+import arc.struct.Seq;
+import mindustry.Vars;
+import mindustry.game.EventType.BuildTeamChangeEvent;
+import mindustry.game.EventType.TileChangeEvent;
+import mindustry.game.EventType.TilePreChangeEvent;
+import mindustry.game.EventType.WorldLoadEvent;
+import mindustry.game.Team;
+import mindustry.gen.Building;
+import mindustry.gen.Groups;
+import mindustry.world.blocks.defense.BuildTurret;
+import mindustry.world.blocks.defense.MendProjector;
+import mindustry.world.blocks.defense.OverdriveProjector;
+import mindustry.world.blocks.defense.OverdriveProjector.OverdriveBuild;
+import mindustry.world.blocks.defense.RegenProjector;
+import mindustry.world.blocks.defense.turrets.Turret;
+import mindustry.world.blocks.defense.turrets.Turret.TurretBuild;
+import mindustry.world.blocks.distribution.MassDriver;
+
+/**
+ * Buildings with a range, bucketed into a coarse grid so only the cells around
+ * the camera are visited. Ranges are computed when a building is placed and
+ * refreshed a few at a time for turrets and overdrive projectors, whose range
+ * and ammo change while they run.
+ *
+ * Circles of the same team and kind that overlap are merged: each circle keeps
+ * only the outline segments not covered by its neighbours, recomputed when a
+ * circle around it changes.
+ */
+public class RangeIndex {
+    private static final float CELL_SIZE = 16 * Vars.tilesize;
+    private static final int REFRESH_PER_FRAME = 128;
+    private static final int OUTLINES_PER_FRAME = 256;
+
+    public static class Entry {
+        public final Building build;
+        public final boolean turret;
+        public final boolean circle;
+        public float range;
+        // Turrets without ammo or power are drawn gray and merged separately
+        public boolean active;
+        // Outline segments as x1, y1, x2, y2, empty when fully covered
+        public final FloatSeq outline = new FloatSeq();
+        public boolean outlineDirty = true;
+
+        boolean queued = false;
+        final int cell;
+        final boolean dynamic;
+
+        Entry(Building build) {
+            this.build = build;
+            this.turret = build.block instanceof Turret;
+            this.circle = !(build.block instanceof RegenProjector);
+            this.dynamic = turret || build instanceof OverdriveBuild;
+            this.cell = cellOf(build.x, build.y);
+        }
+
+        boolean sameGroup(Entry other) {
+            return other.build.team == build.team && other.turret == turret && other.active == active
+                    && other.circle && circle;
+        }
+    }
+
+    private final IntMap<Entry> entries = new IntMap<>();
+    private final IntMap<Seq<Entry>> cells = new IntMap<>();
+    private final Seq<Entry> dynamicEntries = new Seq<>(false, 16, Entry.class);
+    private final Seq<Entry> dirtyOutlines = new Seq<>(false, 16, Entry.class);
+    private final Seq<Entry> visible = new Seq<>(false, 16, Entry.class);
+    private final Seq<Entry> nearby = new Seq<>(false, 16, Entry.class);
+
+    private final Rect lastView = new Rect();
+    private int lastFilter = -1;
+    private int version = 0;
+    private int visibleVersion = -1;
+    private int refreshCursor = 0;
+    private float maxRange = 0;
+
+    public RangeIndex() {
+        Events.on(WorldLoadEvent.class, e -> rebuild());
+        Events.on(TilePreChangeEvent.class, e -> {
+            if (e.tile.build != null) {
+                remove(e.tile.build);
+            }
+        });
+        Events.on(TileChangeEvent.class, e -> {
+            if (e.tile.build != null && e.tile.build.tile == e.tile) {
+                add(e.tile.build);
+            }
+        });
+        Events.on(BuildTeamChangeEvent.class, e -> {
+            remove(e.build);
+            add(e.build);
+        });
+    }
+
+    public void rebuild() {
+        entries.clear();
+        cells.clear();
+        dynamicEntries.clear();
+        dirtyOutlines.clear();
+        maxRange = 0;
+        version++;
+
+        Groups.build.each(this::add);
+    }
+
+    public float getMaxRange() {
+        return maxRange;
+    }
+
+    /** Refreshes a slice of the changing ranges and recomputes pending outlines. */
+    public void update() {
+        int count = Math.min(REFRESH_PER_FRAME, dynamicEntries.size);
+
+        for (int i = 0; i < count && dynamicEntries.size > 0; i++) {
+            if (refreshCursor >= dynamicEntries.size) {
+                refreshCursor = 0;
+            }
+
+            Entry entry = dynamicEntries.get(refreshCursor++);
+
+            if (!entry.build.isValid()) {
+                remove(entry.build);
+                continue;
+            }
+
+            float range = rangeOf(entry.build);
+            boolean active = isActive(entry.build);
+
+            if (!Mathf.equal(range, entry.range) || active != entry.active) {
+                invalidateAround(entry);
+                entry.range = range;
+                entry.active = active;
+                maxRange = Math.max(maxRange, range);
+                invalidateAround(entry);
+                version++;
+            }
+        }
+
+        for (int i = 0; i < OUTLINES_PER_FRAME && dirtyOutlines.size > 0; i++) {
+            Entry entry = dirtyOutlines.pop();
+            entry.queued = false;
+
+            if (entry.outlineDirty && entries.get(entry.build.id) == entry) {
+                computeOutline(entry);
+            }
+        }
+    }
+
+    /**
+     * @return the entries whose range reaches into the view and that the
+     *         current settings draw, reused until the view or the index changes
+     */
+    public Seq<Entry> visible(Rect view) {
+        int filter = filter();
+
+        if (visibleVersion == version && lastFilter == filter && lastView.equals(view)) {
+            return visible;
+        }
+
+        visibleVersion = version;
+        lastFilter = filter;
+        lastView.set(view);
+        visible.clear();
+
+        query(view.x - maxRange, view.y - maxRange, view.width + maxRange * 2, view.height + maxRange * 2,
+                entry -> {
+                    if (isShown(entry) && entry.range > 0
+                            && view.overlaps(entry.build.x - entry.range, entry.build.y - entry.range,
+                                    entry.range * 2, entry.range * 2)) {
+                        visible.add(entry);
+                    }
+                });
+
+        return visible;
+    }
+
+    private void add(Building build) {
+        if (build.team == Team.derelict || entries.containsKey(build.id)) {
+            return;
+        }
+
+        float range = rangeOf(build);
+        Entry entry = new Entry(build);
+
+        if (range <= 0 && !entry.dynamic) {
+            return;
+        }
+
+        entry.range = range;
+        entry.active = isActive(build);
+        maxRange = Math.max(maxRange, range);
+
+        entries.put(build.id, entry);
+        Seq<Entry> cell = cells.get(entry.cell);
+        if (cell == null) {
+            cell = new Seq<>(false, 8, Entry.class);
+            cells.put(entry.cell, cell);
+        }
+        cell.add(entry);
+
+        if (entry.dynamic) {
+            dynamicEntries.add(entry);
+        }
+
+        invalidateAround(entry);
+        version++;
+    }
+
+    private void remove(Building build) {
+        Entry entry = entries.remove(build.id);
+
+        if (entry == null) {
+            return;
+        }
+
+        Seq<Entry> cell = cells.get(entry.cell);
+        if (cell != null) {
+            cell.remove(entry, true);
+        }
+
+        if (entry.dynamic) {
+            dynamicEntries.remove(entry, true);
+        }
+
+        // Neighbours that were clipped by this circle need their outline back
+        invalidateAround(entry);
+        version++;
+    }
+
+    private void invalidateAround(Entry changed) {
+        float range = changed.range;
+
+        markDirty(changed);
+
+        if (range <= 0) {
+            return;
+        }
+
+        query(changed.build.x - range - maxRange, changed.build.y - range - maxRange,
+                (range + maxRange) * 2, (range + maxRange) * 2, entry -> {
+                    if (Mathf.within(entry.build.x, entry.build.y, changed.build.x, changed.build.y,
+                            entry.range + range)) {
+                        markDirty(entry);
+                    }
+                });
+    }
+
+    private void markDirty(Entry entry) {
+        entry.outlineDirty = true;
+
+        if (!entry.queued) {
+            entry.queued = true;
+            dirtyOutlines.add(entry);
+        }
+    }
+
+    private void computeOutline(Entry entry) {
+        entry.outlineDirty = false;
+        entry.outline.clear();
+
+        if (!entry.circle || entry.range <= 0) {
+            return;
+        }
+
+        float x = entry.build.x;
+        float y = entry.build.y;
+        float range = entry.range;
+
+        nearby.clear();
+        query(x - range - maxRange, y - range - maxRange, (range + maxRange) * 2, (range + maxRange) * 2,
+                other -> {
+                    if (other != entry && other.range > 0 && entry.sameGroup(other)
+                            && Mathf.within(other.build.x, other.build.y, x, y, other.range + range)) {
+                        nearby.add(other);
+                    }
+                });
+
+        int segments = Mathf.clamp((int) (range / 2f), 16, 200);
+        float step = 360f / segments;
+        float prevX = x + range;
+        float prevY = y;
+
+        for (int i = 1; i <= segments; i++) {
+            float nextX = x + Mathf.cosDeg(i * step) * range;
+            float nextY = y + Mathf.sinDeg(i * step) * range;
+            float midX = x + Mathf.cosDeg((i - 0.5f) * step) * range;
+            float midY = y + Mathf.sinDeg((i - 0.5f) * step) * range;
+
+            if (!covered(midX, midY)) {
+                entry.outline.add(prevX, prevY);
+                entry.outline.add(nextX, nextY);
+            }
+
+            prevX = nextX;
+            prevY = nextY;
+        }
+    }
+
+    private boolean covered(float x, float y) {
+        for (int i = 0; i < nearby.size; i++) {
+            Entry other = nearby.items[i];
+
+            if (Mathf.dst2(x, y, other.build.x, other.build.y) < other.range * other.range) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void query(float x, float y, float width, float height, Cons<Entry> consumer) {
+        int minX = Math.max(0, (int) (x / CELL_SIZE));
+        int minY = Math.max(0, (int) (y / CELL_SIZE));
+        int maxX = (int) ((x + width) / CELL_SIZE);
+        int maxY = (int) ((y + height) / CELL_SIZE);
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                Seq<Entry> cell = cells.get(Point2.pack(cx, cy));
+
+                if (cell == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < cell.size; i++) {
+                    consumer.get(cell.items[i]);
+                }
+            }
+        }
+    }
+
+    private static int cellOf(float x, float y) {
+        return Point2.pack((int) (x / CELL_SIZE), (int) (y / CELL_SIZE));
+    }
+
+    private static int filter() {
+        int filter = Vars.player.team().id;
+        filter = filter * 2 + (RangeDisplayConfig.drawTurretRangeAlly ? 1 : 0);
+        filter = filter * 2 + (RangeDisplayConfig.drawTurretRangeEnemy ? 1 : 0);
+        filter = filter * 2 + (RangeDisplayConfig.drawBlockRangeAlly ? 1 : 0);
+        filter = filter * 2 + (RangeDisplayConfig.drawBlockRangeEnemy ? 1 : 0);
+        return filter;
+    }
+
+    private static boolean isShown(Entry entry) {
+        boolean isAlly = entry.build.team == Vars.player.team();
+
+        if (entry.turret) {
+            return isAlly ? RangeDisplayConfig.drawTurretRangeAlly : RangeDisplayConfig.drawTurretRangeEnemy;
+        }
+
+        return isAlly ? RangeDisplayConfig.drawBlockRangeAlly : RangeDisplayConfig.drawBlockRangeEnemy;
+    }
+
+    private static boolean isActive(Building build) {
+        return !(build instanceof TurretBuild bt)
+                || (bt.canConsume() && bt.hasAmmo()) || (!build.enabled && bt.peekAmmo() != null);
+    }
+
+    static float rangeOf(Building build) {
+        if (build.block instanceof Turret turret) {
+            float range = turret.range;
+            var ammo = ((TurretBuild) build).peekAmmo();
+            if (ammo != null) {
+                range = range + ammo.rangeChange;
+            }
+            return range;
+        } else if (build instanceof OverdriveBuild projector && build.block instanceof OverdriveProjector od) {
+            return od.range + projector.phaseHeat * od.phaseRangeBoost;
+        } else if (build.block instanceof MassDriver massDriver) {
+            return massDriver.range;
+        } else if (build.block instanceof BuildTurret od) {
+            return od.range;
+        } else if (build.block instanceof MendProjector rdb) {
+            return rdb.range;
+        } else if (build.block instanceof RegenProjector p) {
+            return p.range * Vars.tilesize;
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,60 @@
+package mindustrytool.features.savesync;
+
+import java.util.concurrent.CompletableFuture;
+
+import arc.files.Fi;
+import mindustrytool.features.savesync.dto.CheckHashesDto;
+import mindustrytool.features.savesync.dto.CheckHashesResponseDto;
+import mindustrytool.features.savesync.dto.ChunkedFileDto;
+
+/**
+ * The server side of a chunked upload.
+ *
+ * <ul>
+ * <li>{@code check-hashes} takes a {@link CheckHashesDto} and answers with the
+ * hashes it does not store yet</li>
+ * <li>{@code upload-chunk} takes a multipart body with a {@code hash} field and
+ * a {@code file} part whose SHA-256 must equal it</li>
+ * <li>{@code upload-chunked} takes a {@link ChunkedFileDto} and assembles the
+ * file from stored chunks in order, rejecting it unless the result has the
+ * given size and hash</li>
+ * <li>{@code upload} takes a whole file the same way as {@code upload-chunk}</li>
+ * </ul>
+ *
+ * A server without the chunk endpoints answers 404, see
+ * {@link ChunkedUploader}.
+ */
+public interface ChunkStore {
+    CompletableFuture<CheckHashesResponseDto> checkHashes(CheckHashesDto data);
+
+    CompletableFuture<Void> uploadChunk(Fi file, FileChunker.Chunk chunk);
+
+    CompletableFuture<Void> commitChunkedFile(ChunkedFileDto data);
+
+    CompletableFuture<Void> uploadFile(Fi file, String hash);
+
+    /** The storage API, through {@link StorageService}. */
+    static ChunkStore remote() {
+        return new ChunkStore() {
+            @Override
+            public CompletableFuture<CheckHashesResponseDto> checkHashes(CheckHashesDto data) {
+                return StorageService.checkHashes(data);
+            }
+
+            @Override
+            public CompletableFuture<Void> uploadChunk(Fi file, FileChunker.Chunk chunk) {
+                return StorageService.uploadChunk(file, chunk);
+            }
+
+            @Override
+            public CompletableFuture<Void> commitChunkedFile(ChunkedFileDto data) {
+                return StorageService.commitChunkedFile(data);
+            }
+
+            @Override
+            public CompletableFuture<Void> uploadFile(Fi file, String hash) {
+                return StorageService.uploadFile(file, hash);
+            }
+        };
+    }
+}
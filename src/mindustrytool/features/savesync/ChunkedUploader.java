@@ -0,0 +1,119 @@
+package mindustrytool.features.savesync;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import arc.files.Fi;
+import arc.util.Http.HttpStatus;
+import arc.util.Http.HttpStatusException;
+import arc.util.Log;
+import mindustry.Vars;
+import mindustrytool.features.savesync.StorageService.UploadStatusException;
+import mindustrytool.features.savesync.dto.CheckHashesDto;
+import mindustrytool.features.savesync.dto.ChunkedFileDto;
+
+/**
+ * Uploads large files as content-defined chunks, sending only the chunks the
+ * server does not have yet. Chunks uploaded before a failure are not missing
+ * on the next attempt, so a retry resumes where it stopped.
+ */
+public class ChunkedUploader {
+    public static final long MIN_FILE_SIZE = 1024 * 1024;
+
+    private final ChunkStore store;
+    // Runs the chunking pass, which reads and hashes the whole file
+    private final Executor executor;
+
+    // Set once the server rejects the chunk endpoints, whole files are sent from then on
+    private volatile boolean unsupported = false;
+
+    public ChunkedUploader() {
+        this(ChunkStore.remote(), Vars.mainExecutor);
+    }
+
+    public ChunkedUploader(ChunkStore store, Executor executor) {
+        this.store = store;
+        this.executor = executor;
+    }
+
+    public boolean shouldChunk(Fi file) {
+        return !unsupported && SaveSyncFeature.isChunkedUploadEnabled() && file.length() >= MIN_FILE_SIZE;
+    }
+
+    public CompletableFuture<Void> upload(Fi file, String hash) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return FileChunker.chunk(file, hash);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor).thenCompose(chunks -> uploadChunks(file, hash, chunks))
+                .handle((ignored, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+
+                    if (!isUnsupported(error)) {
+                        return CompletableFuture.<Void>failedFuture(error);
+                    }
+
+                    Log.warn("Server does not support chunked uploads, sending whole files");
+                    unsupported = true;
+                    return store.uploadFile(file, hash);
+                }).thenCompose(future -> future);
+    }
+
+    private CompletableFuture<Void> uploadChunks(Fi file, String hash, List<FileChunker.Chunk> chunks) {
+        Map<String, FileChunker.Chunk> unique = new LinkedHashMap<>();
+        List<String> hashes = new ArrayList<>(chunks.size());
+
+        for (FileChunker.Chunk chunk : chunks) {
+            unique.putIfAbsent(chunk.hash, chunk);
+            hashes.add(chunk.hash);
+        }
+
+        return store.checkHashes(new CheckHashesDto(new ArrayList<>(unique.keySet())))
+                .thenCompose(response -> {
+                    List<String> missing = response.missing == null ? List.of() : response.missing;
+                    long bytes = 0;
+                    CompletableFuture<Void> uploads = CompletableFuture.completedFuture(null);
+
+                    for (String missingHash : missing) {
+                        FileChunker.Chunk chunk = unique.get(missingHash);
+
+                        if (chunk == null) {
+                            continue;
+                        }
+
+                        bytes += chunk.length;
+                        uploads = uploads.thenCompose(ignored -> store.uploadChunk(file, chunk));
+                    }
+
+                    Log.info("Upload: @ as @ of @ chunks, @ of @ bytes", file.path(), missing.size(), unique.size(),
+                            bytes, file.length());
+
+                    return uploads;
+                })
+                .thenCompose(ignored -> store.commitChunkedFile(new ChunkedFileDto(hash, file.length(), hashes)));
+    }
+
+    private static boolean isUnsupported(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusException statusError) {
+                return statusError.status == HttpStatus.NOT_FOUND;
+            }
+
+            if (cause instanceof UploadStatusException uploadError) {
+                return uploadError.status == HttpURLConnection.HTTP_NOT_FOUND;
+            }
+        }
+
+        return false;
+    }
+}
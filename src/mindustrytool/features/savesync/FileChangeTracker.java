@@ -0,0 +1,224 @@
+package mindustrytool.features.savesync;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import arc.files.Fi;
+import arc.util.Log;
+
+/**
+ * Watches the synced directories and collects the paths that changed since the
+ * last sync. Bursts of events, like an autosave writing a file several times,
+ * are reported once after the directories have been quiet for
+ * {@link #DEBOUNCE_MS}.
+ */
+public class FileChangeTracker {
+    public static final long DEBOUNCE_MS = 2000;
+    // Keeps a directory that never goes quiet from postponing the sync forever
+    public static final long MAX_DELAY_MS = 30000;
+
+    public static class Changes {
+        public final Set<String> paths;
+        public final boolean fullScan;
+
+        Changes(Set<String> paths, boolean fullScan) {
+            this.paths = paths;
+            this.fullScan = fullScan;
+        }
+
+        public boolean isEmpty() {
+            return paths.isEmpty() && !fullScan;
+        }
+    }
+
+    private final FileService fileService;
+    private final Runnable onChanges;
+    private final Map<WatchKey, Fi> directories = new HashMap<>();
+
+    private final Set<String> dirty = new HashSet<>();
+    // Events were lost or a directory went away, only a full scan is reliable
+    private boolean overflow = true;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * @param onChanges called from the watcher thread once a burst of changes
+     *                  has settled
+     */
+    public FileChangeTracker(FileService fileService, Runnable onChanges) {
+        this.fileService = fileService;
+        this.onChanges = onChanges;
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    public synchronized void start(Fi... watched) {
+        if (thread != null) {
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+
+            for (Fi directory : watched) {
+                directory.mkdirs();
+                WatchKey key = directory.file().toPath().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                directories.put(key, directory);
+            }
+        } catch (Exception e) {
+            Log.err("Save sync file watcher unavailable, falling back to periodic scans", e);
+            close();
+            return;
+        }
+
+        WatchService service = watchService;
+        thread = new Thread(() -> run(service), "SaveSyncWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread == null) {
+            return;
+        }
+
+        thread.interrupt();
+        thread = null;
+        close();
+    }
+
+    /** Takes the collected changes, the tracker starts over with an empty set. */
+    public synchronized Changes drain() {
+        Changes changes = new Changes(new HashSet<>(dirty), overflow);
+        dirty.clear();
+        overflow = false;
+        return changes;
+    }
+
+    /** Puts back changes that could not be synced so the next sync picks them up. */
+    public synchronized void restore(Changes changes) {
+        dirty.addAll(changes.paths);
+        overflow |= changes.fullScan;
+    }
+
+    private void run(WatchService service) {
+        long pendingSince = 0;
+        long lastEventAt = 0;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key;
+
+                if (pendingSince == 0) {
+                    key = service.take();
+                } else {
+                    long now = System.currentTimeMillis();
+                    long deadline = Math.min(lastEventAt + DEBOUNCE_MS, pendingSince + MAX_DELAY_MS);
+
+                    if (deadline <= now) {
+                        pendingSince = 0;
+                        onChanges.run();
+                        continue;
+                    }
+
+                    key = service.poll(deadline - now, TimeUnit.MILLISECONDS);
+
+                    if (key == null) {
+                        continue;
+                    }
+                }
+
+                if (record(key)) {
+                    lastEventAt = System.currentTimeMillis();
+
+                    if (pendingSince == 0) {
+                        pendingSince = lastEventAt;
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        } catch (Exception e) {
+            Log.err("Save sync file watcher failed", e);
+
+            synchronized (this) {
+                overflow = true;
+
+                if (watchService == service) {
+                    thread = null;
+                    close();
+                }
+            }
+        }
+    }
+
+    private boolean record(WatchKey key) {
+        Fi directory;
+
+        synchronized (this) {
+            directory = directories.get(key);
+        }
+
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            synchronized (this) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                    overflow = true;
+                    changed = true;
+                    continue;
+                }
+
+                Fi file = directory.child(((Path) event.context()).toString());
+
+                // Downloads are written as .part first, the rename is reported separately
+                if (file.name().endsWith(".part")) {
+                    continue;
+                }
+
+                dirty.add(fileService.getRelativePath(file));
+                changed = true;
+            }
+        }
+
+        if (!key.reset()) {
+            synchronized (this) {
+                directories.remove(key);
+                overflow = true;
+            }
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    private void close() {
+        directories.clear();
+
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                Log.err(e);
+            }
+            watchService = null;
+        }
+    }
+}
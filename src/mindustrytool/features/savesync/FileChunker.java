@@ -0,0 +1,144 @@
+package mindustrytool.features.savesync;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import arc.files.Fi;
+import mindustrytool.Utils;
+
+/**
+ * Splits files at content-defined boundaries using a gear rolling hash, so an
+ * edit only changes the chunks around it and the rest keep their hashes.
+ *
+ * Files can change between chunking and sending, an autosave for example, so
+ * chunks are read back through {@link #read} which checks them again.
+ */
+public class FileChunker {
+    public static final int MIN_SIZE = 16 * 1024;
+    public static final int AVERAGE_SIZE = 64 * 1024;
+    public static final int MAX_SIZE = 256 * 1024;
+
+    // A boundary is cut when the top bits of the hash are zero, one in AVERAGE_SIZE.
+    // The top bits depend on the last 64 bytes, the low bits only on the last few
+    private static final long MASK = -1L << (64 - Integer.numberOfTrailingZeros(AVERAGE_SIZE));
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // Fixed seed, every client has to cut the same boundaries for the server to dedup
+        SplittableRandom random = new SplittableRandom(0x6d696e647573L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    public static class Chunk {
+        public final long offset;
+        public final int length;
+        public final String hash;
+
+        Chunk(long offset, int length, String hash) {
+            this.offset = offset;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        @Override
+        public String toString() {
+            return hash + "@" + offset;
+        }
+    }
+
+    /** The file no longer matches the hash it was chunked or indexed with. */
+    public static class FileChangedException extends IOException {
+        public FileChangedException(String message) {
+            super(message);
+        }
+    }
+
+    public static List<Chunk> chunk(Fi file) throws IOException {
+        return chunk(file, null);
+    }
+
+    /**
+     * @param expectedHash the SHA-256 of the whole file, checked in the same
+     *                     pass when not null
+     */
+    public static List<Chunk> chunk(Fi file, String expectedHash) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        MessageDigest digest = sha256();
+        MessageDigest fileDigest = sha256();
+
+        try (InputStream input = file.read()) {
+            byte[] buffer = new byte[MAX_SIZE];
+            long offset = 0;
+            int length = 0;
+            long hash = 0;
+            int read;
+
+            while ((read = input.read(buffer)) != -1) {
+                int start = 0;
+                fileDigest.update(buffer, 0, read);
+
+                for (int i = 0; i < read; i++) {
+                    length++;
+                    hash = (hash << 1) + GEAR[buffer[i] & 0xFF];
+
+                    if (length >= MAX_SIZE || (length >= MIN_SIZE && (hash & MASK) == 0)) {
+                        digest.update(buffer, start, i + 1 - start);
+                        chunks.add(new Chunk(offset, length, Utils.bytesToHex(digest.digest())));
+                        offset += length;
+                        start = i + 1;
+                        length = 0;
+                        hash = 0;
+                    }
+                }
+
+                digest.update(buffer, start, read - start);
+            }
+
+            if (length > 0) {
+                chunks.add(new Chunk(offset, length, Utils.bytesToHex(digest.digest())));
+            }
+        }
+
+        if (expectedHash != null && !expectedHash.equals(Utils.bytesToHex(fileDigest.digest()))) {
+            throw new FileChangedException(file.path() + " changed since it was indexed");
+        }
+
+        return chunks;
+    }
+
+    /** Reads a chunk back from its file, failing if its bytes no longer match its hash. */
+    public static byte[] read(Fi file, Chunk chunk) throws IOException {
+        byte[] data = new byte[chunk.length];
+
+        try (RandomAccessFile input = new RandomAccessFile(file.file(), "r")) {
+            if (input.length() < chunk.offset + chunk.length) {
+                throw new FileChangedException(file.path() + " shrank since it was chunked");
+            }
+
+            input.seek(chunk.offset);
+            input.readFully(data);
+        }
+
+        if (!chunk.hash.equals(Utils.bytesToHex(sha256().digest(data)))) {
+            throw new FileChangedException(file.path() + " changed since it was chunked");
+        }
+
+        return data;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
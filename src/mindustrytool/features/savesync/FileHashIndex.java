@@ -0,0 +1,130 @@
+package mindustrytool.features.savesync;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import arc.files.Fi;
+import arc.util.Log;
+import lombok.Data;
+import mindustry.Vars;
+import mindustrytool.Utils;
+
+/**
+ * Remembers the SHA-256 of local files by (path, size, lastModified) so an
+ * unchanged file is not read again on every sync. Persisted next to the other
+ * tool data.
+ */
+public class FileHashIndex {
+    // A file modified this recently may change again within the same mtime
+    // tick, its hash is not cached until it settles
+    private static final long RACY_WINDOW_MS = 2000;
+
+    @Data
+    private static class Entry {
+        private long size;
+        private long lastModified;
+        private String hash;
+    }
+
+    @Data
+    private static class Snapshot {
+        private Map<String, Entry> entries = new HashMap<>();
+    }
+
+    private final Fi file = Vars.dataDirectory.child("mindustry-tool-hash-index.json");
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private boolean loaded = false;
+    private boolean dirty = false;
+    private long hits = 0;
+    private long misses = 0;
+
+    public synchronized String hash(String path, Fi localFile) throws Exception {
+        load();
+
+        long size = localFile.length();
+        long lastModified = localFile.lastModified();
+        Entry entry = entries.get(path);
+
+        if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+            hits++;
+            return entry.hash;
+        }
+
+        misses++;
+
+        String hash = Utils.sha256(localFile.file());
+
+        if (System.currentTimeMillis() - lastModified > RACY_WINDOW_MS) {
+            put(path, size, lastModified, hash);
+        } else if (entries.remove(path) != null) {
+            dirty = true;
+        }
+
+        return hash;
+    }
+
+    /** Stores a hash computed elsewhere, e.g. while uploading the file. */
+    public synchronized void put(String path, long size, long lastModified, String hash) {
+        load();
+
+        Entry entry = new Entry();
+        entry.size = size;
+        entry.lastModified = lastModified;
+        entry.hash = hash;
+
+        entries.put(path, entry);
+        dirty = true;
+    }
+
+    /** Drops entries of files that no longer exist and writes the index if it changed. */
+    public synchronized void retainAndSave(Set<String> paths) {
+        load();
+
+        if (entries.keySet().retainAll(paths)) {
+            dirty = true;
+        }
+
+        if (!dirty) {
+            return;
+        }
+
+        Snapshot snapshot = new Snapshot();
+        snapshot.entries.putAll(entries);
+
+        try {
+            file.writeString(Utils.toJson(snapshot));
+            dirty = false;
+        } catch (Exception e) {
+            Log.err("Failed to write save sync hash index", e);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (!file.exists()) {
+            return;
+        }
+
+        try {
+            entries.putAll(Utils.fromJson(Snapshot.class, file.readString()).entries);
+        } catch (Exception e) {
+            Log.err("Invalid save sync hash index", e);
+            file.delete();
+        }
+    }
+}
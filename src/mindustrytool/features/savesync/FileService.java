@@ -6,16 +6,28 @@ import arc.struct.Seq;
 import arc.util.Log;
 import mindustry.Vars;
 import mindustrytool.Main;
-import mindustrytool.Utils;
 import mindustrytool.features.savesync.dto.ClientFileDto;
 
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class FileService {
+    private final FileHashIndex hashIndex = new FileHashIndex();
+
+    public FileHashIndex getHashIndex() {
+        return hashIndex;
+    }
+
     public List<ClientFileDto> listFiles() {
         Seq<Fi> files = new Seq<>();
         files.add(Core.settings.getSettingsFile());
@@ -26,15 +38,57 @@ public class FileService {
 
         String basePath = Vars.dataDirectory.absolutePath();
         List<ClientFileDto> result = new ArrayList<>();
+        Set<String> paths = new HashSet<>();
         for (Fi file : files) {
             ClientFileDto clientFile = toClientFile(file, basePath);
             if (clientFile != null) {
                 result.add(clientFile);
+                paths.add(clientFile.getPath());
             }
         }
+
+        hashIndex.retainAndSave(paths);
         return result;
     }
 
+    /**
+     * Lists files again reusing the previous listing, only the given paths and
+     * the settings files are looked at. The settings are always checked because
+     * they are not watched, the game rewrites them too often.
+     */
+    public List<ClientFileDto> refreshFiles(List<ClientFileDto> previousFiles, Set<String> changedPaths) {
+        Set<String> paths = new HashSet<>(changedPaths);
+        paths.add(getRelativePath(Core.settings.getSettingsFile()));
+        paths.add(getRelativePath(Core.settings.getBackupSettingsFile()));
+
+        String basePath = Vars.dataDirectory.absolutePath();
+        List<ClientFileDto> result = new ArrayList<>();
+        Set<String> retained = new HashSet<>();
+
+        for (ClientFileDto file : previousFiles) {
+            if (!paths.contains(file.getPath())) {
+                result.add(file);
+                retained.add(file.getPath());
+            }
+        }
+
+        for (String path : paths) {
+            Fi file = getFile(path);
+            ClientFileDto clientFile = file.exists() ? toClientFile(file, basePath) : null;
+            if (clientFile != null) {
+                result.add(clientFile);
+                retained.add(clientFile.getPath());
+            }
+        }
+
+        hashIndex.retainAndSave(retained);
+        return result;
+    }
+
+    public String getRelativePath(Fi file) {
+        return normalizeRelativePath(file, Vars.dataDirectory.absolutePath());
+    }
+
     public Fi getFile(String path) {
         return Vars.dataDirectory.child(path);
     }
@@ -67,22 +121,21 @@ public class FileService {
         return new SaveSyncFileChanges(createdFiles, updatedFiles, deletedFiles);
     }
 
-    public List<Fi> resolveFilesForHashes(List<ClientFileDto> files, List<String> hashes) {
+    public List<ClientFileDto> resolveFilesForHashes(List<ClientFileDto> files, List<String> hashes) {
         if (hashes == null || hashes.isEmpty()) {
             return new ArrayList<>();
         }
 
-        Map<String, Fi> filesByHash = new HashMap<>();
+        Map<String, ClientFileDto> filesByHash = new HashMap<>();
         for (ClientFileDto file : files) {
-            Fi localFile = getFile(file.getPath());
-            if (localFile.exists() && !filesByHash.containsKey(file.getHash())) {
-                filesByHash.put(file.getHash(), localFile);
+            if (!filesByHash.containsKey(file.getHash()) && getFile(file.getPath()).exists()) {
+                filesByHash.put(file.getHash(), file);
             }
         }
 
-        List<Fi> resolvedFiles = new ArrayList<>();
+        List<ClientFileDto> resolvedFiles = new ArrayList<>();
         for (String hash : hashes) {
-            Fi localFile = filesByHash.get(hash);
+            ClientFileDto localFile = filesByHash.get(hash);
             if (localFile != null) {
                 resolvedFiles.add(localFile);
             }
@@ -99,8 +152,22 @@ public class FileService {
         return null;
     }
 
-    public void writeFile(String path, byte[] bytes) {
-        getFile(path).writeBytes(bytes);
+    public void writeFile(String path, byte[] bytes) throws IOException {
+        // Write next to the target first so an interrupted download never
+        // leaves a truncated save behind. Fi.moveTo falls back to copying when
+        // the target exists on Windows, a replacing move keeps it whole
+        Fi target = getFile(path);
+        Fi partial = target.sibling(target.name() + ".part");
+        partial.writeBytes(bytes);
+
+        Path from = partial.file().toPath();
+        Path to = target.file().toPath();
+
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     public void deleteFile(String path) {
@@ -112,13 +179,13 @@ public class FileService {
     }
 
     private ClientFileDto toClientFile(Fi file, String basePath) {
-        if (file.isDirectory()) {
+        if (file.isDirectory() || file.name().endsWith(".part")) {
             return null;
         }
 
         try {
             String relativePath = normalizeRelativePath(file, basePath);
-            String hash = Utils.sha256(file.file());
+            String hash = hashIndex.hash(relativePath, file);
             return new ClientFileDto(relativePath, hash, Instant.ofEpochMilli(file.lastModified()));
         } catch (Exception e) {
             Log.err(e);
@@ -11,17 +11,24 @@ import mindustrytool.Utils;
 import mindustrytool.features.Feature;
 import mindustrytool.features.FeatureMetadata;
 import mindustrytool.features.auth.AuthService;
+import mindustrytool.features.savesync.dto.ClientFileDto;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 public class SaveSyncFeature implements Feature {
     static final String SETTING_SLOT_ID = "mindustrytool.save-sync.slot-id";
     static final String SETTING_LAST_SYNC = "mindustrytool.save-sync.last-sync";
+    static final String SETTING_CONCURRENCY = "mindustrytool.save-sync.concurrency";
+    static final String SETTING_CHUNKED_UPLOADS = "mindustrytool.save-sync.chunked-uploads";
     private static final float AUTO_SYNC_INTERVAL_SECONDS = 60f * 5f;
 
     private final FileService fileService = new FileService();
     private final SyncService syncService = new SyncService(fileService);
+    private final FileChangeTracker changeTracker = new FileChangeTracker(fileService,
+            () -> Core.app.post(this::performPeriodicSync));
 
     @Override
     public FeatureMetadata getMetadata() {
@@ -42,12 +49,14 @@ public class SaveSyncFeature implements Feature {
 
     @Override
     public void onEnable() {
+        changeTracker.start(Vars.customMapDirectory, Vars.saveDirectory, Vars.schematicDirectory);
         syncService.snapshotLocalFiles();
         checkAndSync(false);
     }
 
     @Override
     public void onDisable() {
+        changeTracker.stop();
     }
 
     @Override
@@ -92,6 +101,14 @@ public class SaveSyncFeature implements Feature {
         performSync(slotId);
     }
 
+    static int getConcurrency() {
+        return Core.settings.getInt(SETTING_CONCURRENCY, 4);
+    }
+
+    static boolean isChunkedUploadEnabled() {
+        return Core.settings.getBool(SETTING_CHUNKED_UPLOADS, false);
+    }
+
     String getSelectedSlotId() {
         return Core.settings.getString(SETTING_SLOT_ID, null);
     }
@@ -122,8 +139,19 @@ public class SaveSyncFeature implements Feature {
             return;
         }
 
-        Optional<CompletableFuture<Void>> future = syncService.syncLocalChanges(getSelectedSlotId());
+        String slotId = getSelectedSlotId();
+        if (slotId == null) {
+            return;
+        }
+
+        // Even without watched changes the sync runs: the settings files are not
+        // watched and a failed sync has to be retried, it returns early when
+        // neither applies
+        FileChangeTracker.Changes changes = changeTracker.drain();
+
+        Optional<CompletableFuture<Void>> future = syncLocalChanges(slotId, changes);
         if (!future.isPresent()) {
+            changeTracker.restore(changes);
             return;
         }
 
@@ -131,11 +159,37 @@ public class SaveSyncFeature implements Feature {
         future.get()
                 .thenRun(() -> Log.info("Periodic save sync completed."))
                 .exceptionally(error -> {
+                    changeTracker.restore(changes);
+                    restoreFailedTransfers(error);
                     Log.err("Failed periodic save sync", error);
                     return null;
                 });
     }
 
+    // Files that could not be uploaded are read again by the next sync
+    private void restoreFailedTransfers(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransferQueue.TransferFailedException failed) {
+                Set<String> paths = new HashSet<>();
+
+                for (Object item : failed.items) {
+                    if (item instanceof ClientFileDto file) {
+                        paths.add(file.getPath());
+                    }
+                }
+
+                changeTracker.restore(new FileChangeTracker.Changes(paths, false));
+                return;
+            }
+        }
+    }
+
+    // Without a running watcher the changes are unknown and every directory is scanned
+    private Optional<CompletableFuture<Void>> syncLocalChanges(String slotId, FileChangeTracker.Changes changes) {
+        boolean fullScan = changes.fullScan || !changeTracker.isRunning();
+        return syncService.syncLocalChanges(slotId, fullScan ? null : changes.paths);
+    }
+
     private void performSyncOnExit() {
         if (!isEnabled() || !AuthService.getInstance().isLoggedIn()) {
             return;
@@ -146,7 +200,9 @@ public class SaveSyncFeature implements Feature {
             return;
         }
 
-        Optional<CompletableFuture<Void>> future = syncService.syncLocalChanges(slotId);
+        FileChangeTracker.Changes changes = changeTracker.drain();
+
+        Optional<CompletableFuture<Void>> future = syncLocalChanges(slotId, changes);
         if (!future.isPresent()) {
             Log.info("Skipping save sync on exit because another sync is already in progress.");
             return;
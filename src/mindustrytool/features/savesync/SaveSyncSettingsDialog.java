@@ -1,5 +1,7 @@
 package mindustrytool.features.savesync;
 
+import arc.Core;
+import arc.scene.ui.Slider;
 import mindustry.gen.Icon;
 import mindustry.ui.dialogs.BaseDialog;
 
@@ -17,5 +19,15 @@ public class SaveSyncSettingsDialog extends BaseDialog {
                 .padTop(10)
                 .disabled(button -> feature.getSelectedSlotId() == null)
                 .row();
+
+        cont.label(() -> "Parallel Transfers: " + SaveSyncFeature.getConcurrency()).padTop(10).row();
+
+        Slider concurrency = new Slider(1, 8, 1, false);
+        concurrency.setValue(SaveSyncFeature.getConcurrency());
+        concurrency.moved(value -> Core.settings.put(SaveSyncFeature.SETTING_CONCURRENCY, (int) value));
+        cont.add(concurrency).width(200).row();
+
+        cont.check("Upload Only Changed Parts Of Large Files", SaveSyncFeature.isChunkedUploadEnabled(),
+                value -> Core.settings.put(SaveSyncFeature.SETTING_CHUNKED_UPLOADS, value)).padTop(10).row();
     }
 }
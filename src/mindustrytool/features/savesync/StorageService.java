@@ -4,9 +4,18 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import arc.files.Fi;
 import arc.util.Log;
@@ -18,6 +27,25 @@ import mindustrytool.features.savesync.dto.*;
 
 public class StorageService {
     private static final String BASE_URL = Config.API_v4_URL + "storage/";
+    private static final String LINE_FEED = "\r\n";
+    // Matches the most parallel transfers the settings allow
+    private static final int UPLOAD_THREADS = 8;
+
+    // Uploads block on the socket and the file, they get their own threads
+    // instead of the common pool
+    private static final ExecutorService uploadExecutor = createUploadExecutor();
+
+    private static ExecutorService createUploadExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(UPLOAD_THREADS, UPLOAD_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "SaveSyncUpload-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
     public static CompletableFuture<List<StorageSlotDto>> listSlots() {
         CompletableFuture<List<StorageSlotDto>> future = new CompletableFuture<>();
@@ -100,82 +128,160 @@ public class StorageService {
     }
 
     public static CompletableFuture<Void> uploadFile(Fi file) {
+        return uploadFile(file, null);
+    }
+
+    /**
+     * Streams a file as multipart form data. The body length is known up front
+     * so the file is never buffered in memory as a whole.
+     *
+     * @param hash the SHA-256 of the file if already known, e.g. from the sync
+     *             index, otherwise it is computed before sending
+     */
+    public static CompletableFuture<Void> uploadFile(Fi file, String hash) {
         Log.info("Upload: " + file.path());
 
         return AuthService.getInstance().refreshTokenIfNeeded().thenCompose(v -> CompletableFuture.runAsync(() -> {
-            String boundary = "---" + System.currentTimeMillis();
-            String LINE_FEED = "\r\n";
-            HttpURLConnection httpConn = null;
+            try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+                String fileHash = hash != null ? hash : Utils.sha256(file.file());
+                long size = channel.size();
+
+                postMultipart(BASE_URL + "upload", accessToken(), fileHash, file.name(), size,
+                        out -> transfer(channel, 0, size, Channels.newChannel(out)));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, uploadExecutor));
+    }
+
+    /**
+     * Uploads one chunk of a file. The chunk is read back and hashed again
+     * before sending, so a file changed since it was chunked fails the upload
+     * instead of storing bytes under the wrong hash.
+     */
+    public static CompletableFuture<Void> uploadChunk(Fi file, FileChunker.Chunk chunk) {
+        return AuthService.getInstance().refreshTokenIfNeeded().thenCompose(v -> CompletableFuture.runAsync(() -> {
             try {
-                URL url = new URL(BASE_URL + "upload");
-                httpConn = (HttpURLConnection) url.openConnection();
-                httpConn.setUseCaches(false);
-                httpConn.setDoOutput(true);
-                httpConn.setDoInput(true);
-                httpConn.setRequestMethod("POST");
-                httpConn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-                String token = AuthService.getInstance().getAccessToken();
-
-                if (token == null) {
-                    throw new RuntimeException("No access token available");
-                }
+                byte[] data = FileChunker.read(file, chunk);
 
-                httpConn.setRequestProperty("Authorization", "Bearer " + token);
-
-                OutputStream outputStream = httpConn.getOutputStream();
-                PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
-                        true);
-
-                String hash = Utils.sha256(file.file());
-                writer.append("--" + boundary).append(LINE_FEED);
-                writer.append("Content-Disposition: form-data; name=\"hash\"").append(LINE_FEED);
-                writer.append(LINE_FEED);
-                writer.append(hash).append(LINE_FEED);
-
-                String fileName = file.name();
-                writer.append("--" + boundary).append(LINE_FEED);
-                writer.append("Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"")
-                        .append(LINE_FEED);
-                writer.append("Content-Type: application/octet-stream").append(LINE_FEED);
-                writer.append(LINE_FEED);
-                writer.flush();
-
-                FileInputStream inputStream = new FileInputStream(file.file());
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    outputStream.write(buffer, 0, bytesRead);
-                }
-                outputStream.flush();
-                inputStream.close();
-
-                writer.append(LINE_FEED);
-                writer.flush();
-                writer.append("--" + boundary + "--").append(LINE_FEED);
-                writer.close();
-
-                int status = httpConn.getResponseCode();
-                if (status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_CREATED) {
-                    // Read error stream
-                    InputStream errorStream = httpConn.getErrorStream();
-                    if (errorStream != null) {
-                        BufferedReader reader = new BufferedReader(new InputStreamReader(errorStream));
-                        StringBuilder response = new StringBuilder();
-                        String line;
-                        while ((line = reader.readLine()) != null) {
-                            response.append(line);
-                        }
-                        reader.close();
-                        throw new IOException("Server returned non-OK status: " + status + " " + response.toString());
-                    }
-                    throw new IOException("Server returned non-OK status: " + status);
-                }
+                postMultipart(BASE_URL + "upload-chunk", accessToken(), chunk.hash, file.name(), data.length,
+                        out -> out.write(data));
             } catch (Exception e) {
                 throw new RuntimeException(e);
-            } finally {
-                if (httpConn != null)
-                    httpConn.disconnect();
             }
-        }));
+        }, uploadExecutor));
+    }
+
+    /** Asks the server to assemble a file from chunks it already has. */
+    public static CompletableFuture<Void> commitChunkedFile(ChunkedFileDto data) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        AuthHttp.post(BASE_URL + "upload-chunked", Utils.toJson(data))
+                .header("Content-Type", "application/json")
+                .submit(res -> future.complete(null), future::completeExceptionally);
+        return future;
+    }
+
+    private static String accessToken() {
+        String token = AuthService.getInstance().getAccessToken();
+
+        if (token == null) {
+            throw new RuntimeException("No access token available");
+        }
+
+        return token;
+    }
+
+    /** Writes the file part of a multipart body, exactly as many bytes as announced. */
+    interface PartWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    static void postMultipart(String target, String token, String hash, String fileName, long length,
+            PartWriter part) throws IOException {
+        String boundary = "---" + System.currentTimeMillis();
+        byte[] head = multipartHead(boundary, hash, fileName);
+        byte[] tail = (LINE_FEED + "--" + boundary + "--" + LINE_FEED).getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection httpConn = null;
+        try {
+            URL url = new URL(target);
+            httpConn = (HttpURLConnection) url.openConnection();
+            httpConn.setUseCaches(false);
+            httpConn.setDoOutput(true);
+            httpConn.setDoInput(true);
+            httpConn.setRequestMethod("POST");
+            httpConn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+            httpConn.setRequestProperty("Authorization", "Bearer " + token);
+
+            httpConn.setFixedLengthStreamingMode(head.length + length + tail.length);
+
+            try (OutputStream outputStream = httpConn.getOutputStream()) {
+                outputStream.write(head);
+                part.write(outputStream);
+                outputStream.write(tail);
+            }
+
+            int status = httpConn.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_CREATED) {
+                // Read error stream
+                InputStream errorStream = httpConn.getErrorStream();
+                if (errorStream != null) {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(errorStream));
+                    StringBuilder response = new StringBuilder();
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        response.append(line);
+                    }
+                    reader.close();
+                    throw new UploadStatusException(status, response.toString());
+                }
+                throw new UploadStatusException(status, "");
+            }
+        } finally {
+            if (httpConn != null)
+                httpConn.disconnect();
+        }
+    }
+
+    private static byte[] multipartHead(String boundary, String hash, String fileName) {
+        StringBuilder head = new StringBuilder();
+        head.append("--").append(boundary).append(LINE_FEED);
+        head.append("Content-Disposition: form-data; name=\"hash\"").append(LINE_FEED);
+        head.append(LINE_FEED);
+        head.append(hash).append(LINE_FEED);
+
+        head.append("--").append(boundary).append(LINE_FEED);
+        head.append("Content-Disposition: form-data; name=\"file\"; filename=\"").append(fileName).append("\"")
+                .append(LINE_FEED);
+        head.append("Content-Type: application/octet-stream").append(LINE_FEED);
+        head.append(LINE_FEED);
+
+        return head.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // The target wraps the connection's stream, so this copies through a heap
+    // buffer rather than zero-copy. It reads exactly the requested range
+    private static void transfer(FileChannel channel, long position, long length, WritableByteChannel target)
+            throws IOException {
+        long end = position + length;
+
+        while (position < end) {
+            long written = channel.transferTo(position, end - position, target);
+
+            if (written <= 0) {
+                throw new IOException("File changed while uploading");
+            }
+
+            position += written;
+        }
+    }
+
+    public static class UploadStatusException extends IOException {
+        public final int status;
+
+        public UploadStatusException(int status, String response) {
+            super("Server returned non-OK status: " + status + " " + response);
+            this.status = status;
+        }
     }
 }
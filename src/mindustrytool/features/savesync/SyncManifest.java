@@ -0,0 +1,89 @@
+package mindustrytool.features.savesync;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import arc.files.Fi;
+import arc.util.Log;
+import lombok.Data;
+import mindustry.Vars;
+import mindustrytool.Utils;
+import mindustrytool.features.savesync.dto.DownloadDto;
+
+/**
+ * Records the transfers of a sync that already finished, so a sync interrupted
+ * by a crash or exit skips them when it runs again. Removed once a sync
+ * completes.
+ */
+@Data
+public class SyncManifest {
+    // Older manifests are ignored, the server state has likely moved on
+    private static final long MAX_AGE_MS = 24 * 60 * 60 * 1000L;
+
+    private String slotId;
+    private long startedAt;
+    private Set<String> uploaded = new HashSet<>();
+    private Set<String> downloaded = new HashSet<>();
+
+    private static Fi file() {
+        return Vars.dataDirectory.child("mindustry-tool-sync-manifest.json");
+    }
+
+    public static SyncManifest load(String slotId) {
+        Fi file = file();
+
+        if (file.exists()) {
+            try {
+                SyncManifest manifest = Utils.fromJson(SyncManifest.class, file.readString());
+
+                if (slotId.equals(manifest.slotId) && System.currentTimeMillis() - manifest.startedAt < MAX_AGE_MS) {
+                    Log.info("Resuming save sync, @ uploads and @ downloads already done",
+                            manifest.uploaded.size(), manifest.downloaded.size());
+                    return manifest;
+                }
+            } catch (Exception e) {
+                Log.err("Invalid save sync manifest", e);
+            }
+        }
+
+        SyncManifest manifest = new SyncManifest();
+        manifest.slotId = slotId;
+        manifest.startedAt = System.currentTimeMillis();
+
+        return manifest;
+    }
+
+    public synchronized boolean isUploaded(String hash) {
+        return uploaded.contains(hash);
+    }
+
+    public synchronized void markUploaded(String hash) {
+        uploaded.add(hash);
+        save();
+    }
+
+    public synchronized boolean isDownloaded(DownloadDto download) {
+        return downloaded.contains(downloadKey(download));
+    }
+
+    public synchronized void markDownloaded(DownloadDto download) {
+        downloaded.add(downloadKey(download));
+        save();
+    }
+
+    public void delete() {
+        file().delete();
+    }
+
+    private static String downloadKey(DownloadDto download) {
+        return download.path + "@" + download.hash;
+    }
+
+    private void save() {
+        try {
+            file().writeString(Utils.toJson(this));
+        } catch (Exception e) {
+            Log.err("Failed to write save sync manifest", e);
+        }
+    }
+}
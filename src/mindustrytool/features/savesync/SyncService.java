@@ -14,50 +14,91 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SyncService {
+    private static final int MAX_ATTEMPTS = 3;
+
     private final FileService fileService;
+    private final ChunkedUploader chunkedUploader = new ChunkedUploader();
     private final AtomicBoolean isSyncing = new AtomicBoolean(false);
     private volatile List<ClientFileDto> initialFiles = Collections.emptyList();
+    private volatile List<ClientFileDto> currentFiles = Collections.emptyList();
+    // Only set once every transfer of a sync succeeded, after a failure local
+    // files may differ from the server even when nothing changed since
+    private volatile boolean upToDate = false;
 
     public SyncService(FileService fileService) {
         this.fileService = fileService;
     }
 
     public void snapshotLocalFiles() {
-        initialFiles = new ArrayList<>(fileService.listFiles());
+        currentFiles = fileService.listFiles();
+        initialFiles = new ArrayList<>(currentFiles);
     }
 
     public Optional<CompletableFuture<Void>> syncWithServer(String slotId, ProgressListener listener) {
-        return runSync(slotId, true, listener == null ? ProgressListener.none() : listener);
+        return runSync(slotId, true, null, listener == null ? ProgressListener.none() : listener);
     }
 
     public Optional<CompletableFuture<Void>> syncLocalChanges(String slotId) {
-        return runSync(slotId, false, ProgressListener.none());
+        return syncLocalChanges(slotId, null);
+    }
+
+    /**
+     * @param changedPaths the paths changed since the last sync, only those are
+     *                     read again, or null to scan every synced directory
+     */
+    public Optional<CompletableFuture<Void>> syncLocalChanges(String slotId, Set<String> changedPaths) {
+        return runSync(slotId, false, changedPaths, ProgressListener.none());
     }
 
-    private Optional<CompletableFuture<Void>> runSync(String slotId, boolean includeLastSync,
+    private Optional<CompletableFuture<Void>> runSync(String slotId, boolean includeLastSync, Set<String> changedPaths,
             ProgressListener listener) {
         if (slotId == null || !isSyncing.compareAndSet(false, true)) {
             return Optional.empty();
         }
 
-        CompletableFuture<Void> future = sync(slotId, includeLastSync, listener)
-                .whenComplete((ignored, throwable) -> isSyncing.set(false));
-        return Optional.of(future);
+        CompletableFuture<Void> future;
+
+        try {
+            future = sync(slotId, includeLastSync, changedPaths, listener);
+        } catch (Throwable e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        return Optional.of(future.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                upToDate = false;
+            }
+            isSyncing.set(false);
+        }));
     }
 
-    private CompletableFuture<Void> sync(String slotId, boolean includeLastSync, ProgressListener listener) {
-        List<ClientFileDto> localFiles = fileService.listFiles();
+    private CompletableFuture<Void> sync(String slotId, boolean includeLastSync, Set<String> changedPaths,
+            ProgressListener listener) {
+        List<ClientFileDto> localFiles = changedPaths == null
+                ? fileService.listFiles()
+                : fileService.refreshFiles(currentFiles, changedPaths);
+        currentFiles = localFiles;
+
         SaveSyncFileChanges fileChanges = fileService.compareFiles(initialFiles, localFiles);
         logFileChanges(fileChanges);
 
+        if (!includeLastSync && upToDate && !fileChanges.hasChanges()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        SyncManifest manifest = SyncManifest.load(slotId);
+
         return deleteServerFiles(slotId, fileChanges.getDeletedFiles())
                 .thenCompose(ignored -> syncSlot(slotId, localFiles, includeLastSync, listener))
-                .thenCompose(response -> applyServerChanges(localFiles, response, includeLastSync, listener))
-                .thenRun(this::completeSync);
+                .thenCompose(response -> applyServerChanges(localFiles, response, includeLastSync, manifest,
+                        listener))
+                .thenRun(() -> completeSync(manifest, includeLastSync));
     }
 
     private CompletableFuture<Void> deleteServerFiles(String slotId, List<ClientFileDto> deletedFiles) {
@@ -105,69 +146,81 @@ public class SyncService {
     }
 
     private CompletableFuture<Void> applyServerChanges(List<ClientFileDto> localFiles, SyncSlotResponseDto response,
-            boolean includeLastSync, ProgressListener listener) {
+            boolean includeLastSync, SyncManifest manifest, ProgressListener listener) {
         listener.updateStatus("Processing changes...");
-        CompletableFuture<Void> uploads = uploadMissingFiles(localFiles, response.missingHashes, listener);
+        CompletableFuture<Void> uploads = uploadMissingFiles(localFiles, response.missingHashes, manifest, listener);
         if (!includeLastSync) {
             return uploads;
         }
 
         return uploads
-                .thenCompose(ignored -> downloadFiles(response.downloads, listener))
+                .thenCompose(ignored -> downloadFiles(response.downloads, manifest, listener))
                 .thenRun(() -> deleteExtraFiles(localFiles, response.extraHashes, listener));
     }
 
     private CompletableFuture<Void> uploadMissingFiles(List<ClientFileDto> localFiles, List<String> missingHashes,
-            ProgressListener listener) {
-        List<Fi> filesToUpload = fileService.resolveFilesForHashes(localFiles, missingHashes);
+            SyncManifest manifest, ProgressListener listener) {
+        List<ClientFileDto> filesToUpload = new ArrayList<>();
+        for (ClientFileDto file : fileService.resolveFilesForHashes(localFiles, missingHashes)) {
+            if (!manifest.isUploaded(file.getHash())) {
+                filesToUpload.add(file);
+            }
+        }
+
         if (filesToUpload.isEmpty()) {
             return CompletableFuture.completedFuture(null);
         }
 
         listener.updateStatus("Uploading " + filesToUpload.size() + " files...");
-        return uploadNext(filesToUpload, 0, listener);
+        AtomicInteger done = new AtomicInteger();
+
+        return new TransferQueue<ClientFileDto>(SaveSyncFeature.getConcurrency(), MAX_ATTEMPTS).run(filesToUpload,
+                this::uploadFile,
+                file -> {
+                    manifest.markUploaded(file.getHash());
+                    Log.info("Uploaded " + file.getPath());
+                    listener.updateStatus(
+                            "Uploaded " + done.incrementAndGet() + " of " + filesToUpload.size() + " files...");
+                });
     }
 
-    private CompletableFuture<Void> uploadNext(List<Fi> filesToUpload, int index, ProgressListener listener) {
-        if (index >= filesToUpload.size()) {
-            return CompletableFuture.completedFuture(null);
-        }
+    private CompletableFuture<Void> uploadFile(ClientFileDto file) {
+        Fi localFile = fileService.getFile(file.getPath());
 
-        Fi file = filesToUpload.get(index);
-        listener.updateStatus("Uploading " + (index + 1) + " of " + filesToUpload.size() + " files...");
+        if (chunkedUploader.shouldChunk(localFile)) {
+            return chunkedUploader.upload(localFile, file.getHash());
+        }
 
-        return StorageService.uploadFile(file)
-                .thenRun(() -> Log.info("Uploaded " + file.path()))
-                .exceptionally(error -> {
-                    Log.err("Failed to upload " + file.path(), error);
-                    return null;
-                })
-                .thenCompose(ignored -> uploadNext(filesToUpload, index + 1, listener));
+        return StorageService.uploadFile(localFile, file.getHash());
     }
 
-    private CompletableFuture<Void> downloadFiles(List<DownloadDto> downloads, ProgressListener listener) {
+    private CompletableFuture<Void> downloadFiles(List<DownloadDto> downloads, SyncManifest manifest,
+            ProgressListener listener) {
         if (downloads == null || downloads.isEmpty()) {
             return CompletableFuture.completedFuture(null);
         }
 
-        listener.updateStatus("Downloading " + downloads.size() + " files...");
-        return downloadNext(downloads, 0, listener);
-    }
+        List<DownloadDto> remaining = new ArrayList<>();
+        for (DownloadDto download : downloads) {
+            if (!manifest.isDownloaded(download)) {
+                remaining.add(download);
+            }
+        }
 
-    private CompletableFuture<Void> downloadNext(List<DownloadDto> downloads, int index, ProgressListener listener) {
-        if (index >= downloads.size()) {
+        if (remaining.isEmpty()) {
             return CompletableFuture.completedFuture(null);
         }
 
-        DownloadDto download = downloads.get(index);
-        listener.updateStatus("Downloading " + download.path);
+        listener.updateStatus("Downloading " + remaining.size() + " files...");
+        AtomicInteger done = new AtomicInteger();
 
-        return downloadFile(download)
-                .exceptionally(error -> {
-                    Log.err("Failed to download " + download.path, error);
-                    return null;
-                })
-                .thenCompose(ignored -> downloadNext(downloads, index + 1, listener));
+        return new TransferQueue<DownloadDto>(SaveSyncFeature.getConcurrency(), MAX_ATTEMPTS).run(remaining,
+                this::downloadFile,
+                download -> {
+                    manifest.markDownloaded(download);
+                    listener.updateStatus(
+                            "Downloaded " + done.incrementAndGet() + " of " + remaining.size() + " files...");
+                });
     }
 
     private CompletableFuture<Void> downloadFile(DownloadDto download) {
@@ -201,9 +254,19 @@ public class SyncService {
         }
     }
 
-    private void completeSync() {
+    private void completeSync(SyncManifest manifest, boolean filesChanged) {
         Core.settings.put(SaveSyncFeature.SETTING_LAST_SYNC, System.currentTimeMillis());
-        snapshotLocalFiles();
+        manifest.delete();
+
+        // Only a sync with the server state downloads or deletes local files,
+        // otherwise the listing taken at the start is still current
+        if (filesChanged) {
+            snapshotLocalFiles();
+        } else {
+            initialFiles = new ArrayList<>(currentFiles);
+        }
+
+        upToDate = true;
     }
 
     private void logFileChanges(SaveSyncFileChanges fileChanges) {
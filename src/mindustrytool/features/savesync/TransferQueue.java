@@ -0,0 +1,135 @@
+package mindustrytool.features.savesync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import arc.util.Log;
+
+/**
+ * Runs transfers with at most {@code concurrency} in flight. Each item is
+ * retried with exponential backoff, an item that still fails does not stop the
+ * rest of the queue, the run fails with every such item once the queue drains.
+ */
+public class TransferQueue<T> {
+    private static final long INITIAL_RETRY_DELAY_MS = 500;
+    private static final long MAX_RETRY_DELAY_MS = 15000;
+
+    /** Items that still failed after every attempt, in no particular order. */
+    public static class TransferFailedException extends RuntimeException {
+        public final List<?> items;
+
+        TransferFailedException(List<?> items, Throwable cause) {
+            super("Failed to transfer " + items.size() + " items", cause);
+            this.items = items;
+        }
+    }
+
+    private final int concurrency;
+    private final int maxAttempts;
+
+    public TransferQueue(int concurrency, int maxAttempts) {
+        this.concurrency = Math.max(1, concurrency);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * @param onDone called with each item that completed successfully
+     * @return a future completed once every item has succeeded, or failed with
+     *         a {@link TransferFailedException} once the others are done
+     */
+    public CompletableFuture<Void> run(List<T> items, Function<T, CompletableFuture<Void>> transfer,
+            Consumer<T> onDone) {
+        if (items.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        List<T> failed = Collections.synchronizedList(new ArrayList<>());
+        Throwable[] firstError = new Throwable[1];
+        CompletableFuture<?>[] workers = new CompletableFuture[Math.min(concurrency, items.size())];
+
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = work(items, next, transfer, onDone, failed, firstError);
+        }
+
+        return CompletableFuture.allOf(workers).thenCompose(ignored -> {
+            if (failed.isEmpty()) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+
+            synchronized (failed) {
+                return CompletableFuture.<Void>failedFuture(
+                        new TransferFailedException(new ArrayList<>(failed), firstError[0]));
+            }
+        });
+    }
+
+    private CompletableFuture<Void> work(List<T> items, AtomicInteger next,
+            Function<T, CompletableFuture<Void>> transfer, Consumer<T> onDone, List<T> failed,
+            Throwable[] firstError) {
+        int index = next.getAndIncrement();
+
+        if (index >= items.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        T item = items.get(index);
+
+        return attempt(item, transfer, 1)
+                .handle((ignored, error) -> {
+                    if (error == null) {
+                        onDone.accept(item);
+                    } else {
+                        Log.err("Failed to transfer " + item + " after " + maxAttempts + " attempts", error);
+
+                        synchronized (failed) {
+                            if (failed.isEmpty()) {
+                                firstError[0] = error;
+                            }
+                            failed.add(item);
+                        }
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> work(items, next, transfer, onDone, failed, firstError));
+    }
+
+    private CompletableFuture<Void> attempt(T item, Function<T, CompletableFuture<Void>> transfer, int attempt) {
+        CompletableFuture<Void> result;
+
+        try {
+            result = transfer.apply(item);
+        } catch (Throwable e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        if (attempt >= maxAttempts) {
+            return result;
+        }
+
+        return result.handle((value, error) -> {
+            if (error == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+
+            long delay = retryDelay(attempt);
+            Log.warn("Transfer of @ failed, retrying in @ms: @", item, delay, error.getMessage());
+
+            return CompletableFuture
+                    .supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> attempt(item, transfer, attempt + 1));
+        }).thenCompose(future -> future);
+    }
+
+    private static long retryDelay(int attempt) {
+        long ceiling = Math.min(MAX_RETRY_DELAY_MS, INITIAL_RETRY_DELAY_MS << Math.min(attempt - 1, 10));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+}
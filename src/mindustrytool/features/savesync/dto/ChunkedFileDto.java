@@ -0,0 +1,17 @@
+package mindustrytool.features.savesync.dto;
+
+import java.util.List;
+
+public class ChunkedFileDto {
+    public String hash;
+    public long size;
+    public List<String> chunks;
+
+    public ChunkedFileDto() {}
+
+    public ChunkedFileDto(String hash, long size, List<String> chunks) {
+        this.hash = hash;
+        this.size = size;
+        this.chunks = chunks;
+    }
+}
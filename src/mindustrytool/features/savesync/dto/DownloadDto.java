@@ -7,4 +7,9 @@ public class DownloadDto {
     public String url;
     public String hash;
     public Date updatedAt;
+
+    @Override
+    public String toString() {
+        return path;
+    }
 }
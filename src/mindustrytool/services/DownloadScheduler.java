@@ -0,0 +1,181 @@
+package mindustrytool.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+
+import arc.Core;
+import arc.util.Http;
+import arc.util.Log;
+
+/**
+ * Runs image downloads with a cap on parallel connections. Concurrent requests
+ * for the same url share one in-flight future, and queued requests that were
+ * drawn recently are started before background and off-screen ones.
+ */
+public class DownloadScheduler {
+    public static final int MAX_CONCURRENT = 6;
+
+    // A queued request not touched within this many frames is considered
+    // off-screen
+    private static final long VISIBLE_FRAMES = 2;
+
+    public enum Priority {
+        VISIBLE,
+        BACKGROUND
+    }
+
+    private static final DownloadScheduler instance = new DownloadScheduler();
+
+    private final HashMap<String, Request> requests = new HashMap<>();
+    private final ArrayList<Request> queue = new ArrayList<>();
+    private int active = 0;
+
+    private static class Request {
+        final String url;
+        final int timeout;
+        final CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+        Priority priority;
+        long lastTouched;
+
+        Request(String url, int timeout, Priority priority) {
+            this.url = url;
+            this.timeout = timeout;
+            this.priority = priority;
+            this.lastTouched = frameId();
+        }
+    }
+
+    public static DownloadScheduler getInstance() {
+        return instance;
+    }
+
+    public CompletableFuture<byte[]> download(String url, int timeout, Priority priority) {
+        CompletableFuture<byte[]> future;
+
+        synchronized (this) {
+            var request = requests.get(url);
+
+            if (request == null) {
+                request = new Request(url, timeout, priority);
+                requests.put(url, request);
+                queue.add(request);
+            } else {
+                if (priority.ordinal() < request.priority.ordinal()) {
+                    request.priority = priority;
+                }
+                request.lastTouched = frameId();
+            }
+
+            future = request.future;
+        }
+
+        pump();
+
+        return future;
+    }
+
+    /**
+     * Marks a queued request as visible for this frame. Widgets call this while
+     * drawing so that downloads follow the scroll position.
+     */
+    public synchronized void touch(String url) {
+        var request = requests.get(url);
+
+        if (request != null) {
+            request.priority = Priority.VISIBLE;
+            request.lastTouched = frameId();
+        }
+    }
+
+    public synchronized boolean isPending(String url) {
+        return requests.containsKey(url);
+    }
+
+    public synchronized int getActiveCount() {
+        return active;
+    }
+
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void pump() {
+        var toStart = new ArrayList<Request>();
+
+        synchronized (this) {
+            while (active < MAX_CONCURRENT && !queue.isEmpty()) {
+                var next = pollBest();
+                active++;
+                toStart.add(next);
+            }
+        }
+
+        for (var request : toStart) {
+            start(request);
+        }
+    }
+
+    private Request pollBest() {
+        long now = frameId();
+        int bestIndex = 0;
+
+        for (int i = 1; i < queue.size(); i++) {
+            if (compare(queue.get(i), queue.get(bestIndex), now) < 0) {
+                bestIndex = i;
+            }
+        }
+
+        return queue.remove(bestIndex);
+    }
+
+    private static int compare(Request a, Request b, long now) {
+        boolean aVisible = a.priority == Priority.VISIBLE && now - a.lastTouched <= VISIBLE_FRAMES;
+        boolean bVisible = b.priority == Priority.VISIBLE && now - b.lastTouched <= VISIBLE_FRAMES;
+
+        if (aVisible != bVisible) {
+            return aVisible ? -1 : 1;
+        }
+
+        if (a.priority != b.priority) {
+            return a.priority.compareTo(b.priority);
+        }
+
+        return Long.compare(b.lastTouched, a.lastTouched);
+    }
+
+    private void start(Request request) {
+        try {
+            Http.get(request.url)
+                    .timeout(request.timeout)
+                    .error(error -> finish(request, null, error))
+                    .submit(response -> finish(request, response.getResult(), null));
+        } catch (Exception error) {
+            finish(request, null, error);
+        }
+    }
+
+    private void finish(Request request, byte[] result, Throwable error) {
+        synchronized (this) {
+            active--;
+            requests.remove(request.url);
+        }
+
+        try {
+            if (error != null) {
+                request.future.completeExceptionally(error);
+            } else {
+                request.future.complete(result);
+            }
+        } catch (Exception e) {
+            Log.err(request.url, e);
+        }
+
+        pump();
+    }
+
+    private static long frameId() {
+        return Core.graphics == null ? 0 : Core.graphics.getFrameId();
+    }
+}
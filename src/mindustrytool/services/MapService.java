@@ -10,6 +10,8 @@ import mindustrytool.dto.MapDetailData;
 
 public class MapService {
 
+    private static final long DETAIL_CACHE_MAX_AGE = 10 * 60 * 1000;
+
     public static CompletableFuture<byte[]> downloadMap(String id) {
         CompletableFuture<byte[]> future = new CompletableFuture<>();
 
@@ -26,11 +28,14 @@ public class MapService {
     public static CompletableFuture<MapDetailData> findMapById(String id) {
         CompletableFuture<MapDetailData> future = new CompletableFuture<>();
 
-        Http.get(Config.API_URL + "maps/" + id)
-                .error(future::completeExceptionally)
-                .timeout(10000)
-                .submit(response -> {
-                    String data = response.getResultAsString();
+        ResponseCache.getInstance()
+                .get(Config.API_URL + "maps/" + id, DETAIL_CACHE_MAX_AGE, 10000)
+                .whenComplete((data, error) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                        return;
+                    }
+
                     Core.app.post(() -> {
                         try {
                             future.complete(Utils.fromJson(MapDetailData.class, data));
@@ -3,8 +3,6 @@ package mindustrytool.services;
 import arc.Core;
 import arc.func.Cons;
 import arc.struct.Seq;
-import arc.util.Http;
-import arc.util.Http.HttpResponse;
 import arc.util.Log;
 import mindustrytool.Config;
 import mindustrytool.Utils;
@@ -12,6 +10,8 @@ import mindustrytool.dto.ModData;
 
 public class ModService {
 
+    private static final long CACHE_MAX_AGE = 60 * 60 * 1000;
+
     private Runnable onUpdate = () -> {
     };
     private static Seq<ModData> mods = new Seq<>();
@@ -28,9 +28,15 @@ public class ModService {
     }
 
     private void getModData(Cons<Seq<ModData>> listener) {
-        Http.get(Config.API_URL + "planets")
-                .error(error -> handleError(listener, error, Config.API_URL + "planets"))
-                .submit(response -> handleResult(response, listener));
+        ResponseCache.getInstance()
+                .get(Config.API_URL + "planets", CACHE_MAX_AGE, 10000)
+                .whenComplete((data, error) -> {
+                    if (error != null) {
+                        handleError(listener, error, Config.API_URL + "planets");
+                    } else {
+                        handleResult(data, listener);
+                    }
+                });
     }
 
     public void handleError(Cons<Seq<ModData>> listener, Throwable error, String url) {
@@ -38,8 +44,7 @@ public class ModService {
         Core.app.post(() -> listener.get(new Seq<>()));
     }
 
-    private void handleResult(HttpResponse response, Cons<Seq<ModData>> listener) {
-        String data = response.getResultAsString();
+    private void handleResult(String data, Cons<Seq<ModData>> listener) {
         var mods = Utils.fromJsonArray(ModData.class, data);
 
         Core.app.post(() -> {
@@ -0,0 +1,226 @@
+package mindustrytool.services;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import arc.files.Fi;
+import arc.util.Http;
+import arc.util.Http.HttpResponse;
+import arc.util.Http.HttpStatus;
+import arc.util.Http.HttpStatusException;
+import arc.util.Log;
+import arc.util.Time;
+import lombok.Data;
+import mindustry.Vars;
+import mindustrytool.Main;
+import mindustrytool.Utils;
+
+/**
+ * Disk backed cache for API GET responses. Fresh entries are served without a
+ * request, stale entries are served immediately and revalidated in the
+ * background with If-None-Match/If-Modified-Since.
+ *
+ * The directory is kept under {@link #MAX_ENTRIES} files and {@link #MAX_BYTES},
+ * the least recently written entries are dropped first.
+ */
+public class ResponseCache {
+
+    @Data
+    private static class Entry {
+        private String url;
+        private String body;
+        private String etag;
+        private String lastModified;
+        private long expiresAt;
+    }
+
+    public static final int MAX_ENTRIES = 1000;
+    public static final long MAX_BYTES = 32L * 1024 * 1024;
+    private static final int WRITES_PER_PRUNE = 100;
+
+    private static final ResponseCache instance = new ResponseCache();
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> revalidating = new ConcurrentHashMap<>();
+    private final AtomicInteger writes = new AtomicInteger();
+    private final AtomicBoolean pruning = new AtomicBoolean(false);
+
+    public static ResponseCache getInstance() {
+        return instance;
+    }
+
+    public CompletableFuture<String> get(String url, long maxAgeMillis, int timeout) {
+        return CompletableFuture.supplyAsync(() -> read(url), Vars.mainExecutor)
+                .thenCompose(entry -> {
+                    if (entry == null) {
+                        return fetch(url, null, maxAgeMillis, timeout);
+                    }
+
+                    if (Time.millis() < entry.expiresAt) {
+                        return CompletableFuture.completedFuture(entry.body);
+                    }
+
+                    fetch(url, entry, maxAgeMillis, timeout).exceptionally(error -> {
+                        Log.debug("Revalidate failed @: @", url, error.getMessage());
+                        return null;
+                    });
+
+                    return CompletableFuture.completedFuture(entry.body);
+                });
+    }
+
+    public void invalidate(String url) {
+        fileOf(url).delete();
+    }
+
+    /** Drops the oldest entries until the cache fits its limits, off the calling thread. */
+    public void prune() {
+        if (!pruning.compareAndSet(false, true)) {
+            return;
+        }
+
+        Vars.mainExecutor.execute(() -> {
+            try {
+                Fi[] files = Main.responseCacheDir.list(file -> file.getName().endsWith(".json"));
+                long[] modified = new long[files.length];
+                long bytes = 0;
+
+                for (int i = 0; i < files.length; i++) {
+                    modified[i] = files[i].lastModified();
+                    bytes += files[i].length();
+                }
+
+                Integer[] order = new Integer[files.length];
+                Arrays.setAll(order, i -> i);
+                Arrays.sort(order, Comparator.comparingLong(i -> modified[i]));
+
+                int count = files.length;
+
+                for (int i = 0; i < order.length && (count > MAX_ENTRIES || bytes > MAX_BYTES); i++) {
+                    Fi file = files[order[i]];
+                    bytes -= file.length();
+                    count--;
+                    file.delete();
+                }
+
+                if (count < files.length) {
+                    Log.debug("Pruned @ cached responses", files.length - count);
+                }
+            } catch (Exception e) {
+                Log.err("Failed to prune response cache", e);
+            } finally {
+                pruning.set(false);
+            }
+        });
+    }
+
+    private CompletableFuture<String> fetch(String url, Entry cached, long maxAgeMillis, int timeout) {
+        return revalidating.computeIfAbsent(url, key -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+
+            var request = Http.get(url).timeout(timeout);
+
+            if (cached != null && cached.etag != null) {
+                request.header("If-None-Match", cached.etag);
+            }
+
+            if (cached != null && cached.lastModified != null) {
+                request.header("If-Modified-Since", cached.lastModified);
+            }
+
+            request.error(error -> {
+                revalidating.remove(url);
+
+                if (cached != null && error instanceof HttpStatusException statusError
+                        && statusError.status == HttpStatus.NOT_MODIFIED) {
+                    future.complete(refresh(cached, maxAgeMillis));
+                } else {
+                    future.completeExceptionally(error);
+                }
+            }).submit(response -> {
+                revalidating.remove(url);
+
+                try {
+                    if (cached != null && response.getStatus() == HttpStatus.NOT_MODIFIED) {
+                        future.complete(refresh(cached, maxAgeMillis));
+                        return;
+                    }
+
+                    if (response.getStatus() != HttpStatus.OK) {
+                        future.completeExceptionally(new RuntimeException(
+                                "Unexpected status " + response.getStatus() + ": " + response.getResultAsString()));
+                        return;
+                    }
+
+                    future.complete(store(url, response, maxAgeMillis));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+
+            return future;
+        });
+    }
+
+    private String refresh(Entry entry, long maxAgeMillis) {
+        entry.expiresAt = Time.millis() + maxAgeMillis;
+        write(entry);
+
+        return entry.body;
+    }
+
+    private String store(String url, HttpResponse response, long maxAgeMillis) {
+        var entry = new Entry();
+        entry.url = url;
+        entry.body = response.getResultAsString();
+        entry.etag = response.getHeader("ETag");
+        entry.lastModified = response.getHeader("Last-Modified");
+        entry.expiresAt = Time.millis() + maxAgeMillis;
+
+        write(entry);
+
+        return entry.body;
+    }
+
+    private Entry read(String url) {
+        Fi file = fileOf(url);
+
+        if (!file.exists()) {
+            return null;
+        }
+
+        try {
+            var entry = Utils.fromJson(Entry.class, file.readString());
+
+            // Different url with the same hash
+            if (!url.equals(entry.url)) {
+                return null;
+            }
+
+            return entry;
+        } catch (Exception e) {
+            Log.err("Invalid cached response for " + url, e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private void write(Entry entry) {
+        try {
+            fileOf(entry.url).writeString(Utils.toJson(entry));
+        } catch (Exception e) {
+            Log.err("Failed to cache response for " + entry.url, e);
+        }
+
+        if (writes.incrementAndGet() % WRITES_PER_PRUNE == 0) {
+            prune();
+        }
+    }
+
+    private Fi fileOf(String url) {
+        return Main.responseCacheDir.child(Integer.toHexString(url.hashCode()) + "-" + url.length() + ".json");
+    }
+}
@@ -9,6 +9,8 @@ import mindustrytool.dto.SchematicDetailData;
 
 public class SchematicService {
 
+    private static final long DETAIL_CACHE_MAX_AGE = 10 * 60 * 1000;
+
     public static CompletableFuture<byte[]> downloadSchematic(String id) {
         CompletableFuture<byte[]> future = new CompletableFuture<>();
 
@@ -24,11 +26,15 @@ public class SchematicService {
     public static CompletableFuture<SchematicDetailData> findSchematicById(String id) {
         CompletableFuture<SchematicDetailData> future = new CompletableFuture<>();
 
-        Http.get(Config.API_URL + "schematics/" + id)
-                .error(future::completeExceptionally)
-                .submit(response -> {
+        ResponseCache.getInstance()
+                .get(Config.API_URL + "schematics/" + id, DETAIL_CACHE_MAX_AGE, 10000)
+                .whenComplete((data, error) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                        return;
+                    }
+
                     try {
-                        String data = response.getResultAsString();
                         future.complete(Utils.fromJson(SchematicDetailData.class, data));
                     } catch (Exception e) {
                         future.completeExceptionally(e);
@@ -5,8 +5,6 @@ import java.util.HashMap;
 import arc.Core;
 import arc.func.Cons;
 import arc.struct.Seq;
-import arc.util.Http;
-import arc.util.Http.HttpResponse;
 import arc.util.Log;
 import mindustrytool.Config;
 import mindustrytool.Utils;
@@ -19,6 +17,8 @@ public class TagService {
         maps
     }
 
+    private static final long CACHE_MAX_AGE = 60 * 60 * 1000;
+
     private Runnable onUpdate = () -> {
     };
     private static HashMap<String, Seq<TagCategory>> categories = new HashMap<>();
@@ -39,9 +39,15 @@ public class TagService {
     }
 
     private void getTagData(TagCategoryEnum category, Cons<Seq<TagCategory>> listener) {
-        Http.get(Config.API_URL + "tags" + "?group=" + category)
-                .error(error -> handleError(listener, error, Config.API_URL + "tags"))
-                .submit(response -> handleResult(response, listener));
+        ResponseCache.getInstance()
+                .get(Config.API_URL + "tags" + "?group=" + category, CACHE_MAX_AGE, 10000)
+                .whenComplete((data, error) -> {
+                    if (error != null) {
+                        handleError(listener, error, Config.API_URL + "tags");
+                    } else {
+                        handleResult(data, listener);
+                    }
+                });
     }
 
     public void handleError(Cons<Seq<TagCategory>> listener, Throwable error, String url) {
@@ -49,8 +55,7 @@ public class TagService {
         Core.app.post(() -> listener.get(new Seq<>()));
     }
 
-    private void handleResult(HttpResponse response, Cons<Seq<TagCategory>> listener) {
-        String data = response.getResultAsString();
+    private void handleResult(String data, Cons<Seq<TagCategory>> listener) {
         var tags = Utils.fromJsonArray(TagCategory.class, data);
 
         Core.app.post(() -> {
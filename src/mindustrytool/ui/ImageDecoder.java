@@ -0,0 +1,135 @@
+package mindustrytool.ui;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import arc.ApplicationListener;
+import arc.Core;
+import arc.files.Fi;
+import arc.func.Cons;
+import arc.graphics.Pixmap;
+import arc.graphics.Texture;
+import arc.graphics.Texture.TextureFilter;
+import arc.util.Log;
+
+/**
+ * Reads and decodes preview images on a small worker pool so that only the
+ * texture upload happens on the render thread. Uploads are drained at most
+ * {@link #MAX_UPLOADS_PER_FRAME} per frame.
+ */
+public class ImageDecoder {
+    public static final int MAX_UPLOADS_PER_FRAME = 4;
+    private static final int MAX_QUEUED = 256;
+
+    private static ImageDecoder instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentLinkedQueue<Upload> uploads = new ConcurrentLinkedQueue<>();
+
+    private static class Upload {
+        final String key;
+        final Pixmap pixmap;
+        final Cons<Throwable> onError;
+
+        Upload(String key, Pixmap pixmap, Cons<Throwable> onError) {
+            this.key = key;
+            this.pixmap = pixmap;
+            this.onError = onError;
+        }
+    }
+
+    private ImageDecoder() {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger counter = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED), runnable -> {
+                    Thread thread = new Thread(runnable, "ImageDecoder-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+
+        Core.app.addListener(new ApplicationListener() {
+            @Override
+            public void update() {
+                drainUploads();
+            }
+        });
+    }
+
+    public static synchronized ImageDecoder getInstance() {
+        if (instance == null) {
+            instance = new ImageDecoder();
+        }
+        return instance;
+    }
+
+    /**
+     * Reads a cached image file and decodes it off the render thread. A file that
+     * fails to decode is deleted so that it gets downloaded again.
+     */
+    public void decode(String key, Fi file, Cons<Throwable> onError) {
+        submit(key, onError, () -> {
+            try {
+                return new Pixmap(file.readBytes());
+            } catch (Exception e) {
+                file.delete();
+                throw e;
+            }
+        });
+    }
+
+    public void decode(String key, byte[] bytes, Cons<Throwable> onError) {
+        submit(key, onError, () -> new Pixmap(bytes));
+    }
+
+    private interface PixmapSource {
+        Pixmap get() throws Exception;
+    }
+
+    private void submit(String key, Cons<Throwable> onError, PixmapSource source) {
+        try {
+            executor.execute(() -> {
+                try {
+                    uploads.add(new Upload(key, source.get(), onError));
+                } catch (Throwable e) {
+                    fail(key, onError, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue is full, let the widget request it again on a later frame
+            Core.app.post(() -> TextureCache.getInstance().cancelLoad(key));
+        }
+    }
+
+    private void fail(String key, Cons<Throwable> onError, Throwable error) {
+        Log.err(key, error);
+        Core.app.post(() -> onError.get(error));
+    }
+
+    private void drainUploads() {
+        for (int i = 0; i < MAX_UPLOADS_PER_FRAME; i++) {
+            Upload upload = uploads.poll();
+
+            if (upload == null) {
+                return;
+            }
+
+            try {
+                var texture = new Texture(upload.pixmap);
+                texture.setFilter(TextureFilter.linear);
+                TextureCache.getInstance().put(upload.key, texture);
+            } catch (Exception e) {
+                Log.err(upload.key, e);
+                upload.onError.get(e);
+            } finally {
+                upload.pixmap.dispose();
+            }
+        }
+    }
+}
@@ -1,18 +1,11 @@
 package mindustrytool.ui;
 
-import java.util.concurrent.ConcurrentHashMap;
-
-import arc.Core;
 import arc.graphics.Color;
-import arc.graphics.Pixmap;
-import arc.graphics.Texture;
-import arc.graphics.Texture.TextureFilter;
 import arc.graphics.g2d.Draw;
 import arc.graphics.g2d.Lines;
 import arc.graphics.g2d.TextureRegion;
 import arc.scene.ui.Image;
 import arc.scene.ui.layout.Scl;
-import arc.util.Http;
 import arc.util.Http.HttpStatus;
 import arc.util.Http.HttpStatusException;
 import arc.util.Log;
@@ -21,6 +14,8 @@ import mindustry.gen.Icon;
 import mindustry.gen.Tex;
 import mindustry.graphics.Pal;
 import mindustrytool.Main;
+import mindustrytool.services.DownloadScheduler;
+import mindustrytool.services.DownloadScheduler.Priority;
 
 public class NetworkImage extends Image {
     public Color borderColor = Pal.gray;
@@ -29,13 +24,13 @@ public class NetworkImage extends Image {
 
     private boolean isError = false;
     private String url;
+    private String downloadUrl;
     private TextureRegion lastTexture;
 
-    private static ConcurrentHashMap<String, TextureRegion> cache = new ConcurrentHashMap<>();
-
     public NetworkImage(String url) {
         super(Tex.clear);
         this.url = url;
+        this.downloadUrl = url + "?format=jpeg";
 
         setScaling(Scaling.fit);
     }
@@ -46,14 +41,25 @@ public class NetworkImage extends Image {
 
     @Override
     public void draw() {
-        super.draw();
-
+        var cache = TextureCache.getInstance();
         var next = cache.get(url);
 
-        if (lastTexture != next) {
+        if (next == null) {
+            next = Icon.refresh.getRegion();
+            DownloadScheduler.getInstance().touch(downloadUrl);
+        }
+
+        // The previous texture may have been evicted and disposed, swap before drawing
+        boolean changed = lastTexture != next;
+
+        if (changed) {
             lastTexture = next;
             setDrawable(next);
+        }
+
+        super.draw();
 
+        if (changed) {
             Draw.color(borderColor);
             Lines.stroke(Scl.scl(thickness));
             Lines.rect(x, y, width, height);
@@ -65,9 +71,7 @@ public class NetworkImage extends Image {
         }
 
         try {
-            if (!cache.containsKey(url)) {
-                cache.put(url, Icon.refresh.getRegion());
-
+            if (cache.beginLoad(url)) {
                 if (!url.endsWith("png") && !url.endsWith("jpg") && !url.endsWith("jpeg")) {
                     return;
                 }
@@ -79,62 +83,40 @@ public class NetworkImage extends Image {
                         .replace("&", "-"));
 
                 if (file.exists()) {
-                    try {
-                        byte[] result = file.readBytes();
-                        Pixmap pix = new Pixmap(result);
-                        Core.app.post(() -> {
-                            try {
-                                var tex = new Texture(pix);
-                                tex.setFilter(TextureFilter.linear);
-                                cache.put(url, new TextureRegion(tex));
-                                pix.dispose();
-                            } catch (Exception e) {
-                                Log.err(url, e);
-                                isError = true;
-                            }
-                        });
-                    } catch (Exception e) {
+                    ImageDecoder.getInstance().decode(url, file, e -> {
                         isError = true;
-                        file.delete();
-                        Log.err(url, e);
-                    }
-
+                        cache.cancelLoad(url);
+                    });
                 } else {
-                    Http.get(url + "?format=jpeg")
-                            .timeout(10000)
-                            .error(error -> {
-                                isError = true;
-                                if (!(error instanceof HttpStatusException requestError)
-                                        || requestError.status != HttpStatus.NOT_FOUND) {
-                                    Log.err(url, error);
+                    DownloadScheduler.getInstance()
+                            .download(downloadUrl, 10000, Priority.VISIBLE)
+                            .whenComplete((result, error) -> {
+                                if (error != null) {
+                                    isError = true;
+                                    cache.cancelLoad(url);
+                                    if (!(error instanceof HttpStatusException requestError)
+                                            || requestError.status != HttpStatus.NOT_FOUND) {
+                                        Log.err(url, error);
+                                    }
+                                    return;
                                 }
-                            })
-                            .submit(res -> {
-                                byte[] result = res.getResult();
-                                if (result.length == 0)
+
+                                if (result.length == 0) {
+                                    cache.cancelLoad(url);
                                     return;
+                                }
 
                                 try {
                                     file.writeBytes(result);
-                                } catch (Exception error) {
-                                    Log.err(url, error);
+                                } catch (Exception e) {
+                                    Log.err(url, e);
                                     isError = true;
                                 }
 
-                                Core.app.post(() -> {
-                                    try {
-                                        Pixmap pix = new Pixmap(result);
-                                        var tex = new Texture(pix);
-                                        tex.setFilter(TextureFilter.linear);
-                                        cache.put(url, new TextureRegion(tex));
-                                        pix.dispose();
-
-                                    } catch (Exception e) {
-                                        Log.err(url, e);
-                                        isError = true;
-                                    }
+                                ImageDecoder.getInstance().decode(url, result, e -> {
+                                    isError = true;
+                                    cache.cancelLoad(url);
                                 });
-
                             });
                 }
             }
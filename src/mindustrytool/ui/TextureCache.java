@@ -0,0 +1,161 @@
+package mindustrytool.ui;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import arc.Core;
+import arc.graphics.Texture;
+import arc.graphics.g2d.TextureRegion;
+import arc.util.Log;
+
+/**
+ * Shared LRU cache for downloaded preview textures. Entries are weighed by
+ * their uncompressed RGBA size and the least recently drawn ones are disposed
+ * once the budget is exceeded.
+ *
+ * Load bookkeeping is synchronized since downloads start and cancel loads from
+ * their callback threads. Textures are only created, stored and disposed on the
+ * main thread.
+ */
+public class TextureCache {
+    public static final String BUDGET_SETTING = "mindustrytool.texture-cache-mb";
+    private static final int DEFAULT_BUDGET_MB = 256;
+
+    private static final TextureCache instance = new TextureCache();
+
+    private final LinkedHashMap<String, TextureRegion> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<String> loading = new HashSet<>();
+
+    private long sizeBytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public static TextureCache getInstance() {
+        return instance;
+    }
+
+    public synchronized TextureRegion get(String key) {
+        var region = entries.get(key);
+
+        if (region != null) {
+            hits++;
+        }
+
+        return region;
+    }
+
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Marks a key as loading. Returns false if the texture is already cached or
+     * another widget is loading it.
+     */
+    public synchronized boolean beginLoad(String key) {
+        if (entries.containsKey(key) || loading.contains(key)) {
+            return false;
+        }
+
+        loading.add(key);
+        misses++;
+        return true;
+    }
+
+    public synchronized boolean isLoading(String key) {
+        return loading.contains(key);
+    }
+
+    public synchronized void cancelLoad(String key) {
+        loading.remove(key);
+    }
+
+    public synchronized TextureRegion put(String key, Texture texture) {
+        loading.remove(key);
+
+        var region = new TextureRegion(texture);
+        var previous = entries.put(key, region);
+
+        if (previous != null) {
+            sizeBytes -= sizeOf(previous.texture);
+            previous.texture.dispose();
+        }
+
+        sizeBytes += sizeOf(texture);
+
+        trim();
+
+        return region;
+    }
+
+    public synchronized void remove(String key) {
+        var region = entries.remove(key);
+
+        if (region != null) {
+            sizeBytes -= sizeOf(region.texture);
+            region.texture.dispose();
+        }
+    }
+
+    public synchronized void clear() {
+        for (var region : entries.values()) {
+            region.texture.dispose();
+        }
+
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    public synchronized long getBudgetBytes() {
+        return Core.settings.getInt(BUDGET_SETTING, DEFAULT_BUDGET_MB) * 1024L * 1024L;
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private void trim() {
+        long budget = getBudgetBytes();
+
+        Iterator<Map.Entry<String, TextureRegion>> iterator = entries.entrySet().iterator();
+
+        // Always keep the most recent entry so a single oversized image can still
+        // be shown
+        while (sizeBytes > budget && entries.size() > 1 && iterator.hasNext()) {
+            var entry = iterator.next();
+            var texture = entry.getValue().texture;
+
+            iterator.remove();
+            sizeBytes -= sizeOf(texture);
+            evictions++;
+
+            texture.dispose();
+
+            Log.debug("Evicted texture @, cache size: @ bytes", entry.getKey(), sizeBytes);
+        }
+    }
+
+    private static long sizeOf(Texture texture) {
+        return (long) texture.width * texture.height * 4;
+    }
+}
@@ -0,0 +1,198 @@
+package mindustrytool.utils;
+
+/**
+ * Single pass markdown to Arc color markup renderer. Supports headers, list
+ * items, links, bold, italic and inline code. Inline markup does not span
+ * lines.
+ */
+public final class MarkdownRenderer {
+
+    private MarkdownRenderer() {
+    }
+
+    public static String render(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder(text.length() + 32);
+        int length = text.length();
+        int start = 0;
+
+        while (start <= length) {
+            int end = text.indexOf('\n', start);
+            if (end == -1) {
+                end = length;
+            }
+
+            // Keep \r\n line endings out of header markup
+            int contentEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+
+            renderLine(text, start, contentEnd, out);
+
+            if (contentEnd < end) {
+                out.append('\r');
+            }
+
+            if (end < length) {
+                out.append('\n');
+            }
+
+            start = end + 1;
+        }
+
+        return out.toString();
+    }
+
+    private static void renderLine(String text, int start, int end, StringBuilder out) {
+        int header = headerContentStart(text, start, end);
+        if (header != -1) {
+            out.append("[accent]");
+            renderInline(text, header, end, out);
+            out.append("[white]");
+            return;
+        }
+
+        int item = listContentStart(text, start, end);
+        if (item != -1) {
+            out.append("• ");
+            renderInline(text, item, end, out);
+            return;
+        }
+
+        renderInline(text, start, end, out);
+    }
+
+    // "#{1,6}\s+" at the start of the line
+    private static int headerContentStart(String text, int start, int end) {
+        int i = start;
+        while (i < end && text.charAt(i) == '#') {
+            i++;
+        }
+
+        int hashes = i - start;
+        if (hashes < 1 || hashes > 6) {
+            return -1;
+        }
+
+        return skipWhitespace(text, i, end, true);
+    }
+
+    // "\s*[-*]\s+" at the start of the line
+    private static int listContentStart(String text, int start, int end) {
+        int i = skipWhitespace(text, start, end, false);
+
+        if (i >= end || (text.charAt(i) != '-' && text.charAt(i) != '*')) {
+            return -1;
+        }
+
+        return skipWhitespace(text, i + 1, end, true);
+    }
+
+    private static int skipWhitespace(String text, int i, int end, boolean required) {
+        int from = i;
+        while (i < end && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+
+        return required && i == from ? -1 : i;
+    }
+
+    // Every search is bounded to the line and a kind of markup that found no
+    // closing delimiter is not looked for again, a later opener would not find
+    // one either. Keeps long lines full of stray markers linear
+    private static void renderInline(String text, int start, int end, StringBuilder out) {
+        boolean links = true, bold = true, italic = true, code = true;
+        int i = start;
+
+        while (i < end) {
+            char c = text.charAt(i);
+
+            if (c == '[' && links) {
+                int close = indexOf(text, "](", i + 1, end);
+                int urlEnd = close == -1 ? -1 : indexOf(text, ')', close + 2, end);
+
+                if (urlEnd != -1) {
+                    out.append("[sky]");
+                    renderInline(text, i + 1, close, out);
+                    out.append("[white]");
+                    i = urlEnd + 1;
+                    continue;
+                }
+
+                links = false;
+            } else if (c == '*' && i + 1 < end && text.charAt(i + 1) == '*') {
+                int close = bold ? indexOf(text, "**", i + 2, end) : -1;
+
+                if (close != -1) {
+                    out.append("[white]");
+                    renderInline(text, i + 2, close, out);
+                    out.append("[white]");
+                    i = close + 2;
+                    continue;
+                }
+
+                bold = false;
+            } else if (c == '*' && italic && isSingleStar(text, i, start, end)) {
+                int close = nextSingleStar(text, i + 1, start, end);
+
+                if (close != -1) {
+                    out.append("[lightgray]");
+                    renderInline(text, i + 1, close, out);
+                    out.append("[white]");
+                    i = close + 1;
+                    continue;
+                }
+
+                italic = false;
+            } else if (c == '`' && code) {
+                int close = indexOf(text, '`', i + 1, end);
+
+                if (close != -1) {
+                    out.append("[cyan]").append(text, i + 1, close).append("[white]");
+                    i = close + 1;
+                    continue;
+                }
+
+                code = false;
+            }
+
+            out.append(c);
+            i++;
+        }
+    }
+
+    private static int indexOf(String text, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int indexOf(String text, String target, int from, int end) {
+        for (int i = from; i + target.length() <= end; i++) {
+            if (text.startsWith(target, i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isSingleStar(String text, int i, int start, int end) {
+        return (i == start || text.charAt(i - 1) != '*') && (i + 1 >= end || text.charAt(i + 1) != '*');
+    }
+
+    private static int nextSingleStar(String text, int from, int start, int end) {
+        for (int i = from; i < end; i++) {
+            if (text.charAt(i) == '*' && isSingleStar(text, i, start, end)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
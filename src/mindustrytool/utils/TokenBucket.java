@@ -0,0 +1,52 @@
+package mindustrytool.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Tracks the theoretical time the next token becomes
+ * available instead of a token count, so taking a token is a single CAS.
+ */
+public final class TokenBucket {
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+
+    private volatile long intervalNanos;
+    private volatile int burst;
+
+    public TokenBucket(int permitsPerMinute, int burst) {
+        setRate(permitsPerMinute, burst);
+    }
+
+    public void setRate(int permitsPerMinute, int burst) {
+        this.intervalNanos = 60_000_000_000L / Math.max(1, permitsPerMinute);
+        this.burst = Math.max(1, burst);
+    }
+
+    /**
+     * Takes a token, waiting for it if none is left.
+     *
+     * @return how long the caller has to wait before using the token, in
+     *         milliseconds
+     */
+    public long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = nextFreeNanos.get();
+            long interval = intervalNanos;
+
+            // An idle bucket refills up to the burst size, not further
+            long base = Math.max(current, now - (burst - 1) * interval);
+            long next = base + interval;
+
+            if (nextFreeNanos.compareAndSet(current, next)) {
+                long wait = base - now;
+                return wait <= 0 ? 0 : (wait + 999_999) / 1_000_000;
+            }
+        }
+    }
+
+    /** Empties the bucket, used when the remote side reports a rate limit anyway. */
+    public void drain() {
+        long now = System.nanoTime();
+        nextFreeNanos.accumulateAndGet(now + intervalNanos, Math::max);
+    }
+}
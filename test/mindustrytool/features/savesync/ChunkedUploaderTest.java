@@ -0,0 +1,176 @@
+package mindustrytool.features.savesync;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import arc.files.Fi;
+import mindustrytool.Utils;
+import mindustrytool.features.savesync.dto.CheckHashesDto;
+import mindustrytool.features.savesync.dto.CheckHashesResponseDto;
+import mindustrytool.features.savesync.dto.ChunkedFileDto;
+
+/** Chunk, upload, commit and read back a file through {@link StandInStorageServer}. */
+public class ChunkedUploaderTest {
+    private static final int FILE_SIZE = 4 * 1024 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private StandInStorageServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new StandInStorageServer();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        Fi file = randomFile("save.msav", 1);
+
+        upload(new ChunkedUploader(server.client(), ForkJoinPool.commonPool()), file);
+
+        assertTrue(server.chunkCount() > 1);
+        assertEquals(FILE_SIZE, server.chunkBytesReceived());
+        assertReadsBack(file);
+    }
+
+    @Test
+    void editSendsOnlyChangedChunks() throws Exception {
+        Fi file = randomFile("save.msav", 2);
+        ChunkedUploader uploader = new ChunkedUploader(server.client(), ForkJoinPool.commonPool());
+
+        upload(uploader, file);
+        long firstUpload = server.chunkBytesReceived();
+
+        try (RandomAccessFile output = new RandomAccessFile(file.file(), "rw")) {
+            output.seek(FILE_SIZE / 2);
+            output.write(new byte[] { 1, 2, 3, 4 });
+        }
+
+        upload(uploader, file);
+
+        assertTrue(server.chunkBytesReceived() - firstUpload < FILE_SIZE / 8);
+        assertReadsBack(file);
+    }
+
+    @Test
+    void fileChangedAfterChunkingFailsUpload() throws Exception {
+        Fi file = randomFile("save.msav", 3);
+        String hash = Utils.sha256(file.file());
+        ChunkStore client = server.client();
+
+        // Rewrite the file between chunking and sending, like an autosave would
+        ChunkStore store = new ChunkStore() {
+            @Override
+            public CompletableFuture<CheckHashesResponseDto> checkHashes(CheckHashesDto data) {
+                try {
+                    writeRandom(file.file(), 4);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return client.checkHashes(data);
+            }
+
+            @Override
+            public CompletableFuture<Void> uploadChunk(Fi file, FileChunker.Chunk chunk) {
+                return client.uploadChunk(file, chunk);
+            }
+
+            @Override
+            public CompletableFuture<Void> commitChunkedFile(ChunkedFileDto data) {
+                return client.commitChunkedFile(data);
+            }
+
+            @Override
+            public CompletableFuture<Void> uploadFile(Fi file, String hash) {
+                return client.uploadFile(file, hash);
+            }
+        };
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> new ChunkedUploader(store, ForkJoinPool.commonPool()).upload(file, hash).get(30,
+                        TimeUnit.SECONDS));
+
+        assertTrue(hasCause(error, FileChunker.FileChangedException.class));
+        assertEquals(0, server.chunkCount());
+        assertNull(server.download(hash));
+    }
+
+    @Test
+    void fileChangedAfterIndexingFailsUpload() throws Exception {
+        Fi file = randomFile("save.msav", 5);
+        String hash = Utils.sha256(file.file());
+        writeRandom(file.file(), 6);
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> new ChunkedUploader(server.client(), ForkJoinPool.commonPool()).upload(file, hash).get(30,
+                        TimeUnit.SECONDS));
+
+        assertTrue(hasCause(error, FileChunker.FileChangedException.class));
+        assertEquals(0, server.chunkCount());
+    }
+
+    @Test
+    void fallsBackToWholeFile() throws Exception {
+        Fi file = randomFile("save.msav", 7);
+        server.setChunksSupported(false);
+
+        upload(new ChunkedUploader(server.client(), ForkJoinPool.commonPool()), file);
+
+        assertEquals(0, server.chunkCount());
+        assertReadsBack(file);
+    }
+
+    private void upload(ChunkedUploader uploader, Fi file) throws Exception {
+        uploader.upload(file, Utils.sha256(file.file())).get(30, TimeUnit.SECONDS);
+    }
+
+    private void assertReadsBack(Fi file) throws Exception {
+        String hash = Utils.sha256(file.file());
+        byte[] downloaded = server.download(hash);
+
+        assertNotNull(downloaded);
+        assertArrayEquals(Files.readAllBytes(file.file().toPath()), downloaded);
+    }
+
+    private Fi randomFile(String name, long seed) throws IOException {
+        File file = dir.resolve(name).toFile();
+        writeRandom(file, seed);
+        return new Fi(file);
+    }
+
+    private static void writeRandom(File file, long seed) throws IOException {
+        byte[] data = new byte[FILE_SIZE];
+        new Random(seed).nextBytes(data);
+        Files.write(file.toPath(), data);
+    }
+
+    private static boolean hasCause(Throwable error, Class<? extends Throwable> type) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
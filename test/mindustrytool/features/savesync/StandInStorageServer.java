@@ -0,0 +1,360 @@
+package mindustrytool.features.savesync;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import arc.files.Fi;
+import mindustrytool.Utils;
+import mindustrytool.features.savesync.dto.CheckHashesDto;
+import mindustrytool.features.savesync.dto.CheckHashesResponseDto;
+import mindustrytool.features.savesync.dto.ChunkedFileDto;
+
+/**
+ * A local server for the storage upload endpoints, following the contract in
+ * {@link ChunkStore}. Chunks and assembled files are kept in memory, an
+ * assembled file can be read back with {@code GET files/<hash>}.
+ */
+public class StandInStorageServer implements AutoCloseable {
+    public static final String TOKEN = "stand-in-token";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpServer server;
+    private final Map<String, byte[]> chunks = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final AtomicLong chunkBytesReceived = new AtomicLong();
+
+    // Answer 404 on the chunk endpoints, like a server that predates them
+    private volatile boolean chunksSupported = true;
+
+    public StandInStorageServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public void setChunksSupported(boolean supported) {
+        chunksSupported = supported;
+    }
+
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    /** File bytes of every accepted chunk upload, duplicates included. */
+    public long chunkBytesReceived() {
+        return chunkBytesReceived.get();
+    }
+
+    /** Downloads an assembled file like a client would. */
+    public byte[] download(String hash) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl() + "files/" + hash).openConnection();
+
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+
+            try (InputStream input = connection.getInputStream()) {
+                return input.readAllBytes();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /** A store that talks to this server over HTTP, the same way {@link StorageService} talks to the API. */
+    public ChunkStore client() {
+        return new ChunkStore() {
+            @Override
+            public CompletableFuture<CheckHashesResponseDto> checkHashes(CheckHashesDto data) {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return mapper.readValue(postJson("check-hashes", data), CheckHashesResponseDto.class);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+
+            @Override
+            public CompletableFuture<Void> uploadChunk(Fi file, FileChunker.Chunk chunk) {
+                return CompletableFuture.runAsync(() -> {
+                    try {
+                        byte[] data = FileChunker.read(file, chunk);
+
+                        StorageService.postMultipart(baseUrl() + "upload-chunk", TOKEN, chunk.hash, file.name(),
+                                data.length, out -> out.write(data));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+
+            @Override
+            public CompletableFuture<Void> commitChunkedFile(ChunkedFileDto data) {
+                return CompletableFuture.runAsync(() -> {
+                    try {
+                        postJson("upload-chunked", data);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+
+            @Override
+            public CompletableFuture<Void> uploadFile(Fi file, String hash) {
+                return CompletableFuture.runAsync(() -> {
+                    try (FileChannel channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ)) {
+                        long size = channel.size();
+
+                        StorageService.postMultipart(baseUrl() + "upload", TOKEN, hash, file.name(), size,
+                                out -> channel.transferTo(0, size, Channels.newChannel(out)));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private byte[] postJson(String endpoint, Object body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl() + endpoint).openConnection();
+
+        try {
+            connection.setDoOutput(true);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("Authorization", "Bearer " + TOKEN);
+
+            try (OutputStream output = connection.getOutputStream()) {
+                mapper.writeValue(output, body);
+            }
+
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new StorageService.UploadStatusException(status, endpoint);
+            }
+
+            try (InputStream input = connection.getInputStream()) {
+                return input.readAllBytes();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath().substring(1);
+
+            if (path.startsWith("files/") && exchange.getRequestMethod().equals("GET")) {
+                byte[] file = files.get(path.substring("files/".length()));
+                respond(exchange, file == null ? 404 : 200, file == null ? new byte[0] : file);
+                return;
+            }
+
+            if (!("Bearer " + TOKEN).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                respond(exchange, 401, new byte[0]);
+                return;
+            }
+
+            byte[] body = exchange.getRequestBody().readAllBytes();
+
+            switch (path) {
+                case "check-hashes" -> checkHashes(exchange, body);
+                case "upload-chunk" -> uploadChunk(exchange, body);
+                case "upload-chunked" -> uploadChunked(exchange, body);
+                case "upload" -> upload(exchange, body);
+                default -> respond(exchange, 404, new byte[0]);
+            }
+        }
+    }
+
+    private void checkHashes(HttpExchange exchange, byte[] body) throws IOException {
+        if (!chunksSupported) {
+            respond(exchange, 404, new byte[0]);
+            return;
+        }
+
+        CheckHashesDto request = mapper.readValue(body, CheckHashesDto.class);
+        CheckHashesResponseDto response = new CheckHashesResponseDto();
+        response.missing = new ArrayList<>();
+
+        for (String hash : request.hashes) {
+            if (!chunks.containsKey(hash)) {
+                response.missing.add(hash);
+            }
+        }
+
+        respond(exchange, 200, mapper.writeValueAsBytes(response));
+    }
+
+    private void uploadChunk(HttpExchange exchange, byte[] body) throws IOException {
+        if (!chunksSupported) {
+            respond(exchange, 404, new byte[0]);
+            return;
+        }
+
+        Multipart part = Multipart.parse(exchange, body);
+
+        if (part == null || !part.hash.equals(sha256(part.file))) {
+            respond(exchange, 400, "Chunk does not match its hash".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        chunks.put(part.hash, part.file);
+        chunkBytesReceived.addAndGet(part.file.length);
+        respond(exchange, 200, new byte[0]);
+    }
+
+    private void uploadChunked(HttpExchange exchange, byte[] body) throws IOException {
+        if (!chunksSupported) {
+            respond(exchange, 404, new byte[0]);
+            return;
+        }
+
+        ChunkedFileDto request = mapper.readValue(body, ChunkedFileDto.class);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+
+        for (String hash : request.chunks) {
+            byte[] chunk = chunks.get(hash);
+
+            if (chunk == null) {
+                respond(exchange, 400, ("Missing chunk " + hash).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            file.write(chunk);
+        }
+
+        byte[] assembled = file.toByteArray();
+
+        if (assembled.length != request.size || !request.hash.equals(sha256(assembled))) {
+            respond(exchange, 400, "Assembled file does not match".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        files.put(request.hash, assembled);
+        respond(exchange, 200, new byte[0]);
+    }
+
+    private void upload(HttpExchange exchange, byte[] body) throws IOException {
+        Multipart part = Multipart.parse(exchange, body);
+
+        if (part == null || !part.hash.equals(sha256(part.file))) {
+            respond(exchange, 400, "File does not match its hash".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        files.put(part.hash, part.file);
+        respond(exchange, 200, new byte[0]);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return Utils.bytesToHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** The hash field and file part of an upload body. */
+    private static class Multipart {
+        String hash;
+        byte[] file;
+
+        static Multipart parse(HttpExchange exchange, byte[] body) {
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+
+            if (contentType == null || !contentType.contains("boundary=")) {
+                return null;
+            }
+
+            byte[] delimiter = ("\r\n--" + contentType.substring(contentType.indexOf("boundary=") + 9))
+                    .getBytes(StandardCharsets.ISO_8859_1);
+            // The first delimiter has no line break before it
+            byte[] padded = new byte[body.length + 2];
+            padded[0] = '\r';
+            padded[1] = '\n';
+            System.arraycopy(body, 0, padded, 2, body.length);
+
+            Multipart result = new Multipart();
+            List<Integer> starts = new ArrayList<>();
+            for (int i = indexOf(padded, delimiter, 0); i >= 0; i = indexOf(padded, delimiter, i + 1)) {
+                starts.add(i);
+            }
+
+            for (int i = 0; i + 1 < starts.size(); i++) {
+                int start = starts.get(i) + delimiter.length + 2;
+                int end = starts.get(i + 1);
+                int headerEnd = indexOf(padded, "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1), start);
+
+                if (headerEnd < 0 || headerEnd > end) {
+                    return null;
+                }
+
+                String headers = new String(padded, start, headerEnd - start, StandardCharsets.UTF_8);
+                byte[] content = new byte[end - headerEnd - 4];
+                System.arraycopy(padded, headerEnd + 4, content, 0, content.length);
+
+                if (headers.contains("name=\"hash\"")) {
+                    result.hash = new String(content, StandardCharsets.UTF_8).trim();
+                } else if (headers.contains("name=\"file\"")) {
+                    result.file = content;
+                }
+            }
+
+            return result.hash == null || result.file == null ? null : result;
+        }
+
+        static int indexOf(byte[] data, byte[] target, int from) {
+            outer: for (int i = from; i <= data.length - target.length; i++) {
+                for (int j = 0; j < target.length; j++) {
+                    if (data[i + j] != target[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+}